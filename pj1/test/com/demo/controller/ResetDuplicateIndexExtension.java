@@ -0,0 +1,19 @@
+package com.demo.pj1.demo.controller;
+
+import com.demo.service.impl.MessageDuplicateIndex;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * 每个测试前清空共享的近似重复留言索引
+ * 索引是内存中的单例，@Rollback不会撤销其中的条目，
+ * 不清空时前面测试回滚掉的留言会与后面测试的新留言归入同一簇
+ */
+public class ResetDuplicateIndexExtension implements BeforeEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        SpringExtension.getApplicationContext(context).getBean(MessageDuplicateIndex.class).clear();
+    }
+}
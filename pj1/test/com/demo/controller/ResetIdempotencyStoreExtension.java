@@ -0,0 +1,19 @@
+package com.demo.pj1.demo.controller;
+
+import com.demo.service.impl.IdempotencyStore;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * 每个测试前清空共享的幂等记录
+ * 记录是内存中的单例，@Rollback不会撤销其中的结果，
+ * 不清空时后面测试复用同一Idempotency-Key会重放前面测试已回滚的订单
+ */
+public class ResetIdempotencyStoreExtension implements BeforeEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        SpringExtension.getApplicationContext(context).getBean(IdempotencyStore.class).clear();
+    }
+}
@@ -0,0 +1,21 @@
+package com.demo.pj1.demo.controller;
+
+import com.demo.service.impl.KeywordFilter;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+/**
+ * 每个测试前清空共享的关键词词典
+ * 词典在启动时从keyword表加载，表中有词时create()会把夹具自动判为通过或拒绝，
+ * 清空后create()保留夹具自己设置的状态，测试结果与keyword表的内容无关
+ */
+public class ResetKeywordFilterExtension implements BeforeEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        SpringExtension.getApplicationContext(context).getBean(KeywordFilter.class).reload(List.of(), List.of());
+    }
+}
@@ -0,0 +1,19 @@
+package com.demo.pj1.demo.controller;
+
+import com.demo.service.impl.RateLimiter;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * 每个测试前清空共享的限流器
+ * RateLimiter是应用上下文中的单例，各测试类共用同一个上下文，
+ * 不清空时前面测试消耗的令牌会让后面的提交返回429
+ */
+public class ResetRateLimiterExtension implements BeforeEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        SpringExtension.getApplicationContext(context).getBean(RateLimiter.class).clear();
+    }
+}
@@ -2,12 +2,17 @@ package com.demo.pj1.demo.controller.admin;
 
 import com.demo.entity.Message;
 import com.demo.entity.User;
+import com.demo.pj1.demo.controller.ResetDuplicateIndexExtension;
+import com.demo.pj1.demo.controller.ResetKeywordFilterExtension;
 import com.demo.service.MessageService;
 import com.demo.service.MessageVoService;
+import com.demo.dao.KeywordDao;
 import com.demo.dao.UserDao;
+import com.demo.entity.Keyword;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -32,6 +37,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ExtendWith({ResetDuplicateIndexExtension.class, ResetKeywordFilterExtension.class})
 @Transactional
 @Rollback
 public class AdminMessageControllerTest {
@@ -45,8 +51,30 @@ public class AdminMessageControllerTest {
     @Autowired
     private UserDao userDao;  // Add UserDao injection
 
+    @Autowired
+    private KeywordDao keywordDao;
+
     private List<Message> testMessages;
 
+    // 互不相关的留言内容，避免夹具之间被识别为近似重复
+    private static final String[] TOPICS = {
+            "the lights over court three flicker at night",
+            "could the locker rooms open fifteen minutes earlier",
+            "great coaching session with the junior squad",
+            "parking was full again on saturday morning",
+            "please add more water fountains near the track",
+            "the new booking page is much easier to use",
+            "lost a blue towel near the swimming pool",
+            "any plans for a table tennis league this winter",
+            "the shower drains in the east wing are slow",
+            "thanks to the staff for finding my keys",
+            "is there a discount for university students",
+            "badminton nets on court two are sagging",
+            "the vending machine keeps eating coins",
+            "would love yoga classes on weekday evenings",
+            "air conditioning in the gym is too cold"
+    };
+
     @BeforeEach
     void setUp() {
         // Create test user first
@@ -61,8 +89,7 @@ public class AdminMessageControllerTest {
         testMessages = new ArrayList<>();
         for (int i = 1; i <= 15; i++) {
             Message message = new Message();
-            message.setMessageID(i);
-            message.setContent("Test Message " + i);
+            message.setContent("Test Message " + i + ": " + TOPICS[i - 1]);
             message.setTime(LocalDateTime.now());
             message.setState(MessageService.STATE_NO_AUDIT);
             message.setUserID("testUser");  // Use the same userID as created above
@@ -267,6 +294,160 @@ public class AdminMessageControllerTest {
         }
     }
 
+    @Test
+    void testPassMessages_Bulk() throws Exception {
+        int first = testMessages.get(0).getMessageID();
+        int second = testMessages.get(1).getMessageID();
+        messageService.rejectMessage(second);
+
+        mockMvc.perform(post("/passMessages.do")
+                .param("messageIDs", String.valueOf(first), String.valueOf(second), "999")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['" + first + "']", is(true)))
+                .andExpect(jsonPath("$['" + second + "']", is(false)))
+                .andExpect(jsonPath("$['999']", is(false)))
+                .andDo(print());
+
+        assertEquals(STATE_PASS, messageService.findById(first).getState());
+        assertEquals(STATE_REJECT, messageService.findById(second).getState());
+    }
+
+    @Test
+    void testRejectMessages_Bulk() throws Exception {
+        String[] ids = testMessages.stream().limit(10)
+                .map(message -> String.valueOf(message.getMessageID()))
+                .toArray(String[]::new);
+
+        mockMvc.perform(post("/rejectMessages.do")
+                .param("messageIDs", ids)
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(10)))
+                .andExpect(jsonPath("$.*", everyItem(is(true))));
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(STATE_REJECT, messageService.findById(testMessages.get(i).getMessageID()).getState());
+        }
+        assertEquals(STATE_NO_AUDIT, messageService.findById(testMessages.get(10).getMessageID()).getState());
+    }
+
+    @Test
+    void testDelMessages_Bulk() throws Exception {
+        int first = testMessages.get(0).getMessageID();
+        int second = testMessages.get(1).getMessageID();
+
+        mockMvc.perform(post("/delMessages.do")
+                .param("messageIDs", String.valueOf(first), String.valueOf(second), "999")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['" + first + "']", is(true)))
+                .andExpect(jsonPath("$['" + second + "']", is(true)))
+                .andExpect(jsonPath("$['999']", is(false)));
+
+        assertThrows(RuntimeException.class, () -> messageService.findById(first));
+        assertThrows(RuntimeException.class, () -> messageService.findById(second));
+    }
+
+    @Test
+    void testPassMessages_MissingIDs() throws Exception {
+        mockMvc.perform(post("/passMessages.do")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isBadRequest());
+    }
+
+    // 关键词预审核 - 管理员修改关键词表后重新加载, 新留言立即按新词典预审核
+    @Test
+    void testReloadKeywords() throws Exception {
+        Keyword keyword = new Keyword();
+        keyword.setWord("reloadedspam");
+        keyword.setAllowed(0);
+        keywordDao.save(keyword);
+        try {
+            mockMvc.perform(post("/reloadKeywords.do"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.banned", greaterThanOrEqualTo(1)))
+                    .andDo(print());
+
+            Message message = new Message();
+            message.setContent("buy reloadedspam now");
+            message.setTime(LocalDateTime.now());
+            message.setState(MessageService.STATE_NO_AUDIT);
+            message.setUserID("testUser");
+            int messageID = messageService.create(message);
+            testMessages.add(message);
+
+            assertEquals(STATE_REJECT, messageService.findById(messageID).getState());
+        } finally {
+            // 恢复过滤器词典, 避免影响其他测试
+            keywordDao.delete(keyword);
+            mockMvc.perform(post("/reloadKeywords.do"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    // 近似重复留言 - 查看簇并一次拒绝整个簇
+    @Test
+    void testRejectCluster_NearDuplicates() throws Exception {
+        String content = "低价出售羽毛球场周末时段，需要的加微信 abc123456 详聊";
+        List<Integer> clusterIDs = new ArrayList<>();
+        for (String suffix : new String[]{"", "!", "!!"}) {
+            Message message = new Message();
+            message.setContent(content + suffix);
+            message.setTime(LocalDateTime.now());
+            message.setState(MessageService.STATE_NO_AUDIT);
+            message.setUserID("testUser");
+            clusterIDs.add(messageService.create(message));
+            testMessages.add(message);
+        }
+        int unrelated = testMessages.get(0).getMessageID();
+
+        mockMvc.perform(get("/messageCluster.do")
+                .param("messageID", String.valueOf(clusterIDs.get(0))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[*].messageID", containsInAnyOrder(clusterIDs.toArray())))
+                .andExpect(jsonPath("$[*].userName", everyItem(is("Test User"))))
+                .andDo(print());
+
+        mockMvc.perform(post("/rejectCluster.do")
+                .param("messageID", String.valueOf(clusterIDs.get(1)))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(3)))
+                .andExpect(jsonPath("$.*", everyItem(is(true))))
+                .andDo(print());
+
+        for (int messageID : clusterIDs) {
+            assertEquals(STATE_REJECT, messageService.findById(messageID).getState());
+        }
+        assertEquals(STATE_NO_AUDIT, messageService.findById(unrelated).getState());
+    }
+
+    // 近似重复留言 - 与其他留言内容无关的留言自成一簇, 只通过其本身
+    @Test
+    void testPassCluster_SingleMessage() throws Exception {
+        int messageID = testMessages.get(0).getMessageID();
+
+        mockMvc.perform(post("/passCluster.do")
+                .param("messageID", String.valueOf(messageID))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", hasSize(1)))
+                .andExpect(jsonPath("$['" + messageID + "']", is(true)));
+
+        assertEquals(STATE_PASS, messageService.findById(messageID).getState());
+        assertEquals(STATE_NO_AUDIT, messageService.findById(testMessages.get(1).getMessageID()).getState());
+    }
+
+    // 近似重复留言 - 缺少messageID参数
+    @Test
+    void testRejectCluster_MissingID() throws Exception {
+        mockMvc.perform(post("/rejectCluster.do")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isBadRequest());
+    }
+
     // 边界条件测试
     @Test
     void testMessageList_BoundaryPages() throws Exception {
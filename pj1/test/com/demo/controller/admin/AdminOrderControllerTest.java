@@ -4,7 +4,9 @@ import com.demo.entity.Order;
 import com.demo.entity.Venue;
 import com.demo.service.OrderService;
 import com.demo.service.OrderVoService;
+import com.demo.dao.OrderDao;
 import com.demo.dao.VenueDao;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,8 +21,10 @@ import org.springframework.test.annotation.Rollback;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
@@ -44,6 +48,9 @@ public class AdminOrderControllerTest {
     @Autowired
     private VenueDao venueDao;
 
+    @Autowired
+    private OrderDao orderDao;
+
     private List<Order> testOrders;
     private Venue testVenue;
 
@@ -98,6 +105,35 @@ public class AdminOrderControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    void testReservationManage_BoundedAuditList() throws Exception {
+        // 创建大量已审核订单
+        for (int i = 0; i < 30; i++) {
+            Order order = new Order();
+            order.setUserID("testUser");
+            order.setVenueID(testVenue.getVenueID());
+            order.setState(i % 2 == 0 ? OrderService.STATE_WAIT : OrderService.STATE_FINISH);
+            order.setOrderTime(LocalDateTime.now());
+            order.setStartTime(LocalDateTime.now().plusDays(1));
+            order.setHours(2);
+            order.setTotal(200);
+            orderDao.save(order);
+        }
+
+        // 已审核列表只返回第一页
+        mockMvc.perform(get("/reservation_manage"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("order_list", hasSize(10)))
+                .andDo(print());
+
+        mockMvc.perform(get("/admin/getAuditOrderList.do")
+                .param("page", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(10)))
+                .andExpect(jsonPath("$[0].state", anyOf(is(OrderService.STATE_WAIT),
+                        is(OrderService.STATE_FINISH))));
+    }
+
     @Test
     void testGetNoAuditOrder_NormalCase() throws Exception {
         mockMvc.perform(get("/admin/getOrderList.do")
@@ -235,18 +271,10 @@ public class AdminOrderControllerTest {
 
     @Test
     void testGetOrderList_Performance() throws Exception {
-        // 准备大量测试数据
+        // 准备大量测试数据, 每天6个互不重叠的两小时时段
         for (int i = 0; i < 100; i++) {
-            Order order = new Order();
-            order.setUserID("testUser");
-            order.setVenueID(testVenue.getVenueID());
-            order.setState(OrderService.STATE_NO_AUDIT);
-            order.setOrderTime(LocalDateTime.now());
-            order.setStartTime(LocalDateTime.now().plusDays(1));
-            order.setHours(2);
-            order.setTotal(200);
-            orderService.submit("Test Venue", 
-                LocalDateTime.now().plusDays(1), 2, "testUser");
+            orderService.submit("Test Venue",
+                LocalDate.now().plusDays(20 + i / 6).atTime(8 + (i % 6) * 2, 0), 2, "testUser");
         }
 
         // 执行性能测试
@@ -264,4 +292,119 @@ public class AdminOrderControllerTest {
         assertTrue(duration < 2000, 
                 "Performance test failed. Expected duration < 2000ms but was " + duration + "ms");
     }
+
+    @Test
+    void testConfirmOrders_Bulk() throws Exception {
+        // 创建三个待审核订单
+        for (int i = 1; i <= 3; i++) {
+            orderService.submit("Test Venue", LocalDateTime.now().plusDays(i), 2, "testUser");
+        }
+        Pageable pageable = PageRequest.of(0, 3, Sort.by("orderTime").descending());
+        List<Order> orders = orderService.findNoAuditOrder(pageable).getContent();
+        assertEquals(3, orders.size());
+        int first = orders.get(0).getOrderID();
+        int second = orders.get(1).getOrderID();
+        int third = orders.get(2).getOrderID();
+
+        // 先单独拒绝一个订单
+        mockMvc.perform(post("/rejectOrder.do")
+                .param("orderID", String.valueOf(third)))
+                .andExpect(status().isOk());
+
+        // 批量通过, 包含已拒绝和不存在的订单
+        mockMvc.perform(post("/passOrders.do")
+                .param("orderIDs", String.valueOf(first), String.valueOf(second),
+                        String.valueOf(third), "999")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['" + first + "']", is(true)))
+                .andExpect(jsonPath("$['" + second + "']", is(true)))
+                .andExpect(jsonPath("$['" + third + "']", is(false)))
+                .andExpect(jsonPath("$['999']", is(false)))
+                .andDo(print());
+
+        assertEquals(OrderService.STATE_WAIT, orderService.findById(first).getState());
+        assertEquals(OrderService.STATE_WAIT, orderService.findById(second).getState());
+        assertEquals(OrderService.STATE_REJECT, orderService.findById(third).getState());
+    }
+
+    @Test
+    void testRejectOrders_Bulk() throws Exception {
+        orderService.submit("Test Venue", LocalDateTime.now().plusDays(1), 2, "testUser");
+        orderService.submit("Test Venue", LocalDateTime.now().plusDays(2), 2, "testUser");
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("orderTime").descending());
+        List<Order> orders = orderService.findNoAuditOrder(pageable).getContent();
+
+        mockMvc.perform(post("/rejectOrders.do")
+                .param("orderIDs", String.valueOf(orders.get(0).getOrderID()),
+                        String.valueOf(orders.get(1).getOrderID()))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.*", everyItem(is(true))));
+
+        for (Order order : orders) {
+            assertEquals(OrderService.STATE_REJECT, orderService.findById(order.getOrderID()).getState());
+        }
+    }
+
+    @Test
+    void testConfirmOrders_EmptyRequest() throws Exception {
+        mockMvc.perform(post("/passOrders.do")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isBadRequest());
+    }
+
+    // 游标分页测试 - 待审核订单按订单ID升序逐页翻到末尾, 不重复不遗漏, 已审核订单不出现
+    @Test
+    void testGetNoAuditOrderCursor_WalkAllPages() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            orderService.submit("Test Venue", LocalDateTime.now().plusDays(i), 2, "testUser");
+        }
+        List<Order> submitted = orderService.findNoAuditOrder(PageRequest.of(0, 5,
+                Sort.by("orderTime").descending())).getContent();
+        orderService.confirmOrder(submitted.get(0).getOrderID());
+        long noAudit = orderService.findNoAuditOrder(PageRequest.of(0, 1)).getTotalElements();
+
+        List<Integer> orderIDs = new ArrayList<>();
+        String cursor = null;
+        do {
+            String body = mockMvc.perform(cursor == null
+                        ? get("/admin/getNoAuditOrderCursor.do").param("size", "2")
+                        : get("/admin/getNoAuditOrderCursor.do").param("cursor", cursor).param("size", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content", hasSize(lessThanOrEqualTo(2))))
+                    .andExpect(jsonPath("$.content[*].state", everyItem(is(OrderService.STATE_NO_AUDIT))))
+                    .andReturn().getResponse().getContentAsString();
+            orderIDs.addAll(JsonPath.<List<Integer>>read(body, "$.content[*].orderID"));
+            cursor = JsonPath.read(body, "$.nextCursor");
+        } while (cursor != null);
+
+        assertEquals(noAudit, orderIDs.size());
+        List<Integer> sorted = new ArrayList<>(orderIDs);
+        sorted.sort(null);
+        assertEquals(sorted, orderIDs);
+        assertEquals(orderIDs.size(), new HashSet<>(orderIDs).size());
+        assertFalse(orderIDs.contains(submitted.get(0).getOrderID()));
+    }
+
+    // 游标分页测试 - 非法游标与非法每页数量
+    @Test
+    void testGetNoAuditOrderCursor_InvalidParams() throws Exception {
+        mockMvc.perform(get("/admin/getNoAuditOrderCursor.do")
+                .param("cursor", "not-a-cursor")
+                .param("size", "2"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/admin/getNoAuditOrderCursor.do")
+                .param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportOrders_InvalidRange() throws Exception {
+        mockMvc.perform(get("/admin/exportOrders.do")
+                .param("from", LocalDate.now().plusDays(1).toString())
+                .param("to", LocalDate.now().toString()))
+                .andExpect(status().isBadRequest());
+    }
 }
\ No newline at end of file
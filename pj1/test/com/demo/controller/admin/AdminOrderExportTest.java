@@ -0,0 +1,136 @@
+package com.demo.pj1.demo.controller.admin;
+
+import com.demo.dao.VenueDao;
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 订单导出测试
+ * 导出在异步线程的独立事务中读取数据库，因此本类不使用@Transactional，测试数据提交后在测试结束时清理
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AdminOrderExportTest {
+
+    private static final String EXPORT_USER = "exportUser";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private VenueDao venueDao;
+
+    private Venue testVenue;
+    private Venue quotedVenue;
+
+    @BeforeEach
+    void setUp() {
+        // 创建并提交测试场地
+        testVenue = new Venue();
+        testVenue.setVenueName("Export Venue");
+        testVenue.setPrice(100);
+        testVenue.setDescription("Test Description");
+        venueDao.save(testVenue);
+
+        quotedVenue = new Venue();
+        quotedVenue.setVenueName("Court \"A\", North");
+        quotedVenue.setPrice(50);
+        quotedVenue.setDescription("Test Description");
+        venueDao.save(quotedVenue);
+
+        // 创建并提交测试订单
+        for (int i = 1; i <= 3; i++) {
+            orderService.submit(testVenue.getVenueName(), LocalDate.now().plusDays(i).atTime(10, 0), 2, EXPORT_USER);
+        }
+        orderService.submit(quotedVenue.getVenueName(), LocalDate.now().plusDays(1).atTime(10, 0), 2, EXPORT_USER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 清理测试数据
+        for (Order order : orderService.findUserOrder(EXPORT_USER, PageRequest.of(0, 100)).getContent()) {
+            try {
+                orderService.delOrder(order.getOrderID());
+            } catch (Exception e) {
+                // 忽略删除失败的异常
+            }
+        }
+        try {
+            venueDao.delete(testVenue);
+        } catch (Exception e) {
+            // 忽略删除失败的异常
+        }
+        try {
+            venueDao.delete(quotedVenue);
+        } catch (Exception e) {
+            // 忽略删除失败的异常
+        }
+    }
+
+    private ResultActions export(String format, int venueID) throws Exception {
+        MvcResult result = mockMvc.perform(get("/admin/exportOrders.do")
+                .param("from", LocalDate.now().toString())
+                .param("to", LocalDate.now().plusDays(10).toString())
+                .param("venueID", String.valueOf(venueID))
+                .param("format", format))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testExportOrders_Csv() throws Exception {
+        String body = export("csv", testVenue.getVenueID())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", containsString("attachment")))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.trim().split("\r?\n");
+        assertEquals("orderID,venueName,userID,startTime,hours,total,state", lines[0]);
+        assertEquals(4, lines.length);
+        assertTrue(lines[1].contains("Export Venue"));
+    }
+
+    @Test
+    void testExportOrders_CsvEscapesVenueName() throws Exception {
+        String body = export("csv", quotedVenue.getVenueID())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.trim().split("\r?\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains(",\"Court \"\"A\"\", North\"," + EXPORT_USER + ","), lines[1]);
+    }
+
+    @Test
+    void testExportOrders_Json() throws Exception {
+        export("json", testVenue.getVenueID())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[*].venueName", everyItem(is("Export Venue"))))
+                .andExpect(jsonPath("$[0].total", is(200.0)));
+    }
+}
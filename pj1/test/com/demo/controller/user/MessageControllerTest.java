@@ -1,12 +1,18 @@
 package com.demo.pj1.demo.controller.user;
 
+import com.demo.pj1.demo.controller.ResetDuplicateIndexExtension;
+import com.demo.pj1.demo.controller.ResetKeywordFilterExtension;
+import com.demo.pj1.demo.controller.ResetRateLimiterExtension;
 import com.demo.entity.Message;
 import com.demo.entity.User;
 import com.demo.service.MessageService;
 import com.demo.service.UserService;
+import com.demo.service.impl.RateLimiter;
 import com.demo.exception.LoginException;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -23,6 +29,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -31,6 +38,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ExtendWith({ResetRateLimiterExtension.class, ResetDuplicateIndexExtension.class,
+        ResetKeywordFilterExtension.class})
 @Transactional
 @Rollback
 public class MessageControllerTest {
@@ -44,6 +53,9 @@ public class MessageControllerTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private RateLimiter rateLimiter;
+
     private List<Message> testMessages;
     private User testUser;
     private MockHttpSession session;
@@ -237,6 +249,135 @@ public class MessageControllerTest {
                 .andExpect(content().string(containsString("Message content too long")));
     }
 
+    // 游标分页测试 - 已通过留言逐页翻到末尾, 只包含已通过留言且不重复
+    // 游标按留言ID升序(即创建顺序)排列, 与按时间倒序的getMessageList不同, 因此断言确切顺序
+    @Test
+    void testGetMessageCursor_WalkAllPages() throws Exception {
+        List<String> contents = new ArrayList<>();
+        String cursor = null;
+        do {
+            String body = mockMvc.perform(cursor == null
+                        ? get("/message/getMessageCursor").param("size", "2")
+                        : get("/message/getMessageCursor").param("cursor", cursor).param("size", "2"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content", hasSize(lessThanOrEqualTo(2))))
+                    .andExpect(jsonPath("$.content[*].userName", everyItem(is("Test User"))))
+                    .andReturn().getResponse().getContentAsString();
+            contents.addAll(JsonPath.<List<String>>read(body, "$.content[*].content"));
+            cursor = JsonPath.read(body, "$.nextCursor");
+        } while (cursor != null);
+
+        assertEquals(5, contents.size());
+        assertThat(contents, contains("Test Message 1", "Test Message 2", "Test Message 3",
+                "Test Message 4", "Test Message 5"));
+    }
+
+    // 游标分页测试 - 非法游标
+    @Test
+    void testGetMessageCursor_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/message/getMessageCursor")
+                .param("cursor", "not-a-cursor")
+                .param("size", "2"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Slice接口测试 - 已通过留言只返回是否有下一页, 不返回总数
+    @Test
+    void testGetMessageSlice() throws Exception {
+        mockMvc.perform(get("/message/getMessageSlice")
+                .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(5)))
+                .andExpect(jsonPath("$.content[0].userName", is("Test User")))
+                .andExpect(jsonPath("$.last").value(true))
+                .andExpect(jsonPath("$.totalPages").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andDo(print());
+    }
+
+    // 限流测试 - 登录用户按会话用户限流, 超过桶容量后返回429与Retry-After
+    @Test
+    void testSendMessage_RateLimited() throws Exception {
+        for (int i = 0; i < rateLimiter.getCapacity(); i++) {
+            mockMvc.perform(post("/sendMessage")
+                    .session(session)
+                    .param("userID", testUser.getUserID())
+                    .param("content", "Burst Message " + i)
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                    .andExpect(status().is3xxRedirection());
+        }
+
+        mockMvc.perform(post("/sendMessage")
+                .session(session)
+                .param("userID", testUser.getUserID())
+                .param("content", "One Too Many")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", matchesPattern("[1-9][0-9]*")));
+
+        // 修改请求参数中的userID不能绕过限流
+        mockMvc.perform(post("/sendMessage")
+                .session(session)
+                .param("userID", "spoofedUser")
+                .param("content", "Spoofed Message")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isTooManyRequests());
+
+        // 其他登录用户不受影响
+        User otherUser = new User();
+        otherUser.setUserID("otherUser");
+        otherUser.setUserName("Other User");
+        otherUser.setPassword("password");
+        otherUser.setEmail("other@example.com");
+        otherUser.setPhone("12345678902");
+        userService.create(otherUser);
+        MockHttpSession otherSession = new MockHttpSession();
+        otherSession.setAttribute("user", otherUser);
+        mockMvc.perform(post("/sendMessage")
+                .session(otherSession)
+                .param("userID", otherUser.getUserID())
+                .param("content", "Unrelated Message")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().is3xxRedirection());
+    }
+
+    // 限流测试 - 未登录请求按IP限流, 每次更换userID参数也共用同一个桶
+    @Test
+    void testSendMessage_RateLimitedByIpWithoutSession() throws Exception {
+        for (int i = 0; i < rateLimiter.getCapacity(); i++) {
+            mockMvc.perform(post("/sendMessage")
+                    .with(request -> {
+                        request.setRemoteAddr("10.0.0.2");
+                        return request;
+                    })
+                    .param("userID", "anonymous" + i)
+                    .param("content", "Anonymous Message " + i)
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                    .andExpect(status().is3xxRedirection());
+        }
+
+        mockMvc.perform(post("/sendMessage")
+                .with(request -> {
+                    request.setRemoteAddr("10.0.0.2");
+                    return request;
+                })
+                .param("userID", "anonymousLast")
+                .param("content", "Anonymous Too Many")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isTooManyRequests());
+
+        // 其他IP不受影响
+        mockMvc.perform(post("/sendMessage")
+                .with(request -> {
+                    request.setRemoteAddr("10.0.0.3");
+                    return request;
+                })
+                .param("userID", "anonymousOther")
+                .param("content", "Other Address Message")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().is3xxRedirection());
+    }
+
     // 并发测试
     @Test
     void testMessageOperations_ConcurrentModification() throws Exception {
@@ -0,0 +1,184 @@
+package com.demo.pj1.demo.controller.user;
+
+import com.demo.pj1.demo.controller.ResetDuplicateIndexExtension;
+import com.demo.pj1.demo.controller.ResetKeywordFilterExtension;
+import com.demo.entity.Message;
+import com.demo.entity.User;
+import com.demo.service.MessageService;
+import com.demo.service.UserService;
+import com.demo.service.impl.MessageBroadcaster;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 已通过留言SSE推送测试
+ * 推送只在事务提交后发生，因此本类不使用@Transactional，测试数据提交后在测试结束时清理
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith({ResetDuplicateIndexExtension.class, ResetKeywordFilterExtension.class})
+public class MessageStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MessageBroadcaster broadcaster;
+
+    private User testUser;
+    private List<Integer> createdMessageIDs;
+    private List<MvcResult> openStreams;
+    private int subscribersBefore;
+
+    @BeforeEach
+    void setUp() {
+        // 创建并提交测试用户
+        testUser = new User();
+        testUser.setUserID("streamUser");
+        testUser.setUserName("Stream User");
+        testUser.setPassword("password");
+        testUser.setEmail("stream@example.com");
+        testUser.setPhone("12345678901");
+        userService.create(testUser);
+        createdMessageIDs = new ArrayList<>();
+        openStreams = new ArrayList<>();
+        subscribersBefore = broadcaster.subscriberCount();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 结束打开的SSE连接, 订阅随之取消
+        for (MvcResult stream : openStreams) {
+            stream.getRequest().getAsyncContext().complete();
+        }
+        assertEquals(subscribersBefore, broadcaster.subscriberCount());
+
+        // 清理测试数据
+        for (int messageID : createdMessageIDs) {
+            try {
+                messageService.delById(messageID);
+            } catch (Exception e) {
+                // 忽略删除失败的异常
+            }
+        }
+        try {
+            userService.delByID(testUser.getId());
+        } catch (Exception e) {
+            // 忽略删除失败的异常
+        }
+    }
+
+    private int createMessage(String content) {
+        Message message = new Message();
+        message.setContent(content);
+        message.setTime(LocalDateTime.now());
+        message.setState(MessageService.STATE_NO_AUDIT);
+        message.setUserID(testUser.getUserID());
+        int messageID = messageService.create(message);
+        createdMessageIDs.add(messageID);
+        return messageID;
+    }
+
+    private MvcResult openStream() throws Exception {
+        MvcResult result = mockMvc.perform(get("/message/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Type", startsWith(MediaType.TEXT_EVENT_STREAM_VALUE)))
+                .andReturn();
+        openStreams.add(result);
+        return result;
+    }
+
+    // 等待推送内容中出现指定文本, 返回当前已推送的全部内容
+    private String awaitPushed(MvcResult result, String text) throws Exception {
+        String body = result.getResponse().getContentAsString();
+        for (int i = 0; i < 100 && !body.contains(text); i++) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString();
+        }
+        assertTrue(body.contains(text), body);
+        return body;
+    }
+
+    // SSE测试 - 连接设置空闲超时，断开的客户端不会一直占用异步请求
+    @Test
+    void testMessageStream_HasIdleTimeout() throws Exception {
+        MvcResult result = openStream();
+
+        assertEquals(MessageBroadcaster.STREAM_TIMEOUT_MILLIS, result.getRequest().getAsyncContext().getTimeout());
+    }
+
+    // SSE测试 - 审核通过并提交的留言被推送给订阅者
+    @Test
+    void testMessageStream_PushesCommittedApproval() throws Exception {
+        MvcResult result = openStream();
+        int messageID = createMessage("Streamed Message");
+
+        messageService.confirmMessage(messageID);
+
+        String body = awaitPushed(result, "Streamed Message");
+        assertTrue(body.contains("event:message"), body);
+        assertTrue(body.contains("\"messageID\":" + messageID), body);
+        assertTrue(body.contains("\"userName\":\"Stream User\""), body);
+    }
+
+    // SSE测试 - 审核通过但事务回滚的留言不推送
+    @Test
+    void testMessageStream_IgnoresRolledBackApproval() throws Exception {
+        MvcResult result = openStream();
+        int messageID = createMessage("Rolled Back Message");
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            messageService.confirmMessage(messageID);
+            status.setRollbackOnly();
+            return null;
+        });
+
+        // 之后提交的留言被推送, 说明回滚的留言已错过推送时机
+        messageService.confirmMessage(createMessage("Sentinel Message"));
+        String body = awaitPushed(result, "Sentinel Message");
+        assertFalse(body.contains("Rolled Back Message"), body);
+        assertEquals(MessageService.STATE_NO_AUDIT, messageService.findById(messageID).getState());
+    }
+
+    // SSE测试 - 被拒绝的留言不推送
+    @Test
+    void testMessageStream_IgnoresRejectedMessage() throws Exception {
+        MvcResult result = openStream();
+
+        messageService.rejectMessage(createMessage("Rejected Stream Message"));
+
+        // 之后通过的留言被推送, 说明被拒绝的留言已错过推送时机
+        messageService.confirmMessage(createMessage("Sentinel Message"));
+        String body = awaitPushed(result, "Sentinel Message");
+        assertFalse(body.contains("Rejected Stream Message"), body);
+    }
+}
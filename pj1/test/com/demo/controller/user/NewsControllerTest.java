@@ -1,7 +1,9 @@
 package com.demo.pj1.demo.controller.user;
 
+import com.demo.dao.NewsDao;
 import com.demo.entity.News;
 import com.demo.service.NewsService;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,6 +36,9 @@ public class NewsControllerTest {
     @Autowired
     private NewsService newsService;
 
+    @Autowired
+    private NewsDao newsDao;
+
     private List<News> testNewsList;
 
     @BeforeEach
@@ -277,6 +282,40 @@ public class NewsControllerTest {
                     not(containsString("<script>")))));
     }
 
+    // 缓存测试 - 分页总数来自缓存的countAll, 绕过服务的写入在有效期内不可见, 经服务新建后立即刷新
+    @Test
+    void testGetNewsList_TotalFromCachedCount() throws Exception {
+        mockMvc.perform(get("/news/getNewsList")
+                .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalPages").value(2))
+                .andExpect(jsonPath("$.totalElements").value(10));
+
+        News direct = new News();
+        direct.setTitle("Direct News");
+        direct.setContent("Direct Content");
+        direct.setTime(LocalDateTime.now());
+        newsDao.save(direct);
+
+        mockMvc.perform(get("/news/getNewsList")
+                .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalPages").value(2))
+                .andExpect(jsonPath("$.totalElements").value(10));
+
+        News created = new News();
+        created.setTitle("Created News");
+        created.setContent("Created Content");
+        created.setTime(LocalDateTime.now());
+        newsService.create(created);
+
+        mockMvc.perform(get("/news/getNewsList")
+                .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalPages").value(3))
+                .andExpect(jsonPath("$.totalElements").value(12));
+    }
+
     // 缓存测试 - 验证新闻更新后的缓存失效
     @Test
     void testNewsList_CacheInvalidation() throws Exception {
@@ -316,4 +355,63 @@ public class NewsControllerTest {
                     hasProperty("time", is(originalTime))
                 )));
     }
+
+    // 游标分页测试 - 逐页翻到末尾, 不重复不遗漏
+    @Test
+    void testGetNewsCursor_WalkAllPages() throws Exception {
+        String first = mockMvc.perform(get("/news/getNewsCursor")
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(5)))
+                .andExpect(jsonPath("$.content[0].title", is("Test News 1")))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(first, "$.nextCursor");
+
+        String second = mockMvc.perform(get("/news/getNewsCursor")
+                .param("cursor", cursor)
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(5)))
+                .andExpect(jsonPath("$.content[0].title", is("Test News 6")))
+                .andExpect(jsonPath("$.content[4].title", is("Test News 10")))
+                .andReturn().getResponse().getContentAsString();
+        cursor = JsonPath.read(second, "$.nextCursor");
+
+        mockMvc.perform(get("/news/getNewsCursor")
+                .param("cursor", cursor)
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", empty()))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()))
+                .andDo(print());
+    }
+
+    // 游标分页测试 - 非法游标
+    @Test
+    void testGetNewsCursor_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/news/getNewsCursor")
+                .param("cursor", "not-a-cursor")
+                .param("size", "5"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Slice接口测试 - 只返回是否有下一页, 不返回总数
+    @Test
+    void testGetNewsSlice() throws Exception {
+        mockMvc.perform(get("/news/getNewsSlice")
+                .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(5)))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalPages").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        mockMvc.perform(get("/news/getNewsSlice")
+                .param("page", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(5)))
+                .andExpect(jsonPath("$.last").value(true))
+                .andDo(print());
+    }
 }
\ No newline at end of file
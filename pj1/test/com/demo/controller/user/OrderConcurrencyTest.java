@@ -0,0 +1,196 @@
+package com.demo.pj1.demo.controller.user;
+
+import com.demo.pj1.demo.controller.ResetRateLimiterExtension;
+import com.demo.entity.Order;
+import com.demo.entity.User;
+import com.demo.entity.Venue;
+import com.demo.service.OrderService;
+import com.demo.service.UserService;
+import com.demo.service.VenueService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 并发预订测试
+ * 工作线程不在测试事务内，因此本类不使用@Transactional，测试数据提交到数据库并在测试后清理
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith(ResetRateLimiterExtension.class)
+public class OrderConcurrencyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private VenueService venueService;
+
+    private User testUser;
+    private Venue testVenue;
+    private MockHttpSession session;
+
+    @BeforeEach
+    void setUp() {
+        // 创建并提交测试用户
+        testUser = new User();
+        testUser.setUserID("concurrencyUser");
+        testUser.setUserName("Concurrency User");
+        testUser.setPassword("password");
+        testUser.setEmail("concurrency@example.com");
+        testUser.setPhone("12345678901");
+        userService.create(testUser);
+
+        // 创建并提交测试场馆
+        testVenue = new Venue();
+        testVenue.setVenueName("Concurrency Venue");
+        testVenue.setAddress("Test Address");
+        testVenue.setDescription("Test Description");
+        testVenue.setPrice(100);
+        testVenue.setOpen_time("09:00");
+        testVenue.setClose_time("22:00");
+        venueService.create(testVenue);
+
+        session = new MockHttpSession();
+        session.setAttribute("user", testUser);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 清理测试数据, 失败不再被忽略: 残留的订单和场馆会影响之后的并发测试
+        List<Exception> failures = new ArrayList<>();
+        for (Order order : orderService.findUserOrder(testUser.getUserID(), PageRequest.of(0, 100)).getContent()) {
+            try {
+                orderService.delOrder(order.getOrderID());
+            } catch (Exception e) {
+                failures.add(e);
+            }
+        }
+        try {
+            venueService.delById(testVenue.getVenueID());
+        } catch (Exception e) {
+            failures.add(e);
+        }
+        try {
+            userService.delByID(testUser.getId());
+        } catch (Exception e) {
+            failures.add(e);
+        }
+        if (!failures.isEmpty()) {
+            AssertionError error = new AssertionError("测试数据清理失败: " + failures.size() + "项");
+            failures.forEach(error::addSuppressed);
+            throw error;
+        }
+    }
+
+    // 并发测试 - 多个请求同时预订同一时段
+    @Test
+    void testAddOrder_ConcurrentStress() throws Throwable {
+        String bookingTime = LocalDateTime.now().plusDays(3)
+                .withHour(15).withMinute(0).withSecond(0)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger conflicted = new AtomicInteger();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        // 创建多个并发请求
+        for (int i = 0; i < 20; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    int status = mockMvc.perform(post("/addOrder.do")
+                            .session(session)
+                            .param("venueName", testVenue.getVenueName())
+                            .param("date", bookingTime.split(" ")[0])
+                            .param("startTime", bookingTime)
+                            .param("hours", "2"))
+                            .andReturn().getResponse().getStatus();
+                    if (status == 302) {
+                        booked.incrementAndGet();
+                    } else if (status == 409) {
+                        conflicted.incrementAndGet();
+                    } else {
+                        failures.add(new AssertionError("Unexpected status " + status));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+
+        // 同时启动所有线程并等待完成
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // 工作线程中的失败在主线程重新抛出
+        if (!failures.isEmpty()) {
+            Throwable first = failures.poll();
+            failures.forEach(first::addSuppressed);
+            throw first;
+        }
+        assertEquals(1, booked.get());
+        assertEquals(19, conflicted.get());
+        assertEquals(1, orderService.findUserOrder(testUser.getUserID(), PageRequest.of(0, 100)).getTotalElements());
+    }
+
+    // 时段索引测试 - 订单删除提交后当天的已预订时段立即释放
+    // 释放在事务提交后才作用于索引, 因此放在提交数据的本类中, 而不是整体回滚的OrderControllerTest
+    @Test
+    void testGetOrder_ReflectsDeletedOrder() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        String date = start.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        orderService.submit(testVenue.getVenueName(), start, 2, testUser.getUserID());
+
+        mockMvc.perform(get("/order/getOrderList.do")
+                .param("venueName", testVenue.getVenueName())
+                .param("date", date))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders", hasSize(1)))
+                .andExpect(jsonPath("$.orders[0].venueID", is(testVenue.getVenueID())));
+
+        Order dayOrder = orderService.findDayOrder(testVenue.getVenueID(), start.toLocalDate()).get(0);
+        mockMvc.perform(post("/delOrder.do")
+                .param("orderID", String.valueOf(dayOrder.getOrderID()))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/order/getOrderList.do")
+                .param("venueName", testVenue.getVenueName())
+                .param("date", date))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders", empty()));
+    }
+}
@@ -1,5 +1,7 @@
 package com.demo.pj1.demo.controller.user;
 
+import com.demo.pj1.demo.controller.ResetIdempotencyStoreExtension;
+import com.demo.pj1.demo.controller.ResetRateLimiterExtension;
 import com.demo.entity.Order;
 import com.demo.entity.User;
 import com.demo.entity.Venue;
@@ -7,8 +9,10 @@ import com.demo.exception.LoginException;
 import com.demo.service.OrderService;
 import com.demo.service.UserService;
 import com.demo.service.VenueService;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -19,11 +23,18 @@ import org.springframework.test.annotation.Rollback;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,6 +44,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ExtendWith({ResetRateLimiterExtension.class, ResetIdempotencyStoreExtension.class})
 @Transactional
 @Rollback
 public class OrderControllerTest {
@@ -49,6 +61,9 @@ public class OrderControllerTest {
     @Autowired
     private VenueService venueService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private User testUser;
     private Venue testVenue;
     private List<Order> testOrders;
@@ -382,14 +397,210 @@ public class OrderControllerTest {
         }
     }
 
+    // 每周重复预订测试 - 一次请求创建全部场次
+    @Test
+    void testAddWeeklyOrder_Success() throws Exception {
+        // 第一个场次在setUp已预订的第1~10天之后, 全部场次都不会与其重叠
+        String startTime = LocalDateTime.now().plusDays(12)
+                .withHour(19).withMinute(0).withSecond(0)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        long before = orderService.findUserOrder(testUser.getUserID(), PageRequest.of(0, 1)).getTotalElements();
+
+        mockMvc.perform(post("/addWeeklyOrder.do")
+                .session(session)
+                .param("venueName", testVenue.getVenueName())
+                .param("startTime", startTime)
+                .param("hours", "2")
+                .param("weeks", "8")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("order_manage"));
+
+        long after = orderService.findUserOrder(testUser.getUserID(), PageRequest.of(0, 1)).getTotalElements();
+        assertEquals(before + 8, after);
+
+        // 重复提交同一规则应整体失败
+        mockMvc.perform(post("/addWeeklyOrder.do")
+                .session(session)
+                .param("venueName", testVenue.getVenueName())
+                .param("startTime", startTime)
+                .param("hours", "2")
+                .param("weeks", "8")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isConflict());
+        assertEquals(after, orderService.findUserOrder(testUser.getUserID(), PageRequest.of(0, 1)).getTotalElements());
+    }
+
+    // 每周重复预订测试 - saveAll只有在订单主键不使用IDENTITY生成且开启JDBC批量时, 才会合并为批量INSERT
+    @Test
+    void testAddWeeklyOrder_JdbcBatchingEnabled() throws Exception {
+        GeneratedValue generatedValue = Order.class.getDeclaredField("orderID").getAnnotation(GeneratedValue.class);
+        assertNotNull(generatedValue);
+        assertTrue(generatedValue.strategy() == GenerationType.SEQUENCE
+                || generatedValue.strategy() == GenerationType.TABLE);
+
+        Map<String, Object> properties = entityManagerFactory.getProperties();
+        assertTrue(Integer.parseInt(String.valueOf(properties.get("hibernate.jdbc.batch_size"))) > 1);
+        assertEquals("true", String.valueOf(properties.get("hibernate.order_inserts")));
+    }
+
+    // 幂等测试 - 相同Idempotency-Key的重试只创建一个订单
+    // 以下幂等测试各用setUp预订范围(第1~10天)之外的不同日期, 结果与运行时刻无关
+    @Test
+    void testAddOrder_IdempotentRetry() throws Exception {
+        String startTime = LocalDateTime.now().plusDays(13)
+                .withHour(11).withMinute(0).withSecond(0)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        long before = orderService.findUserOrder(testUser.getUserID(), PageRequest.of(0, 1)).getTotalElements();
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/addOrder.do")
+                    .session(session)
+                    .header("Idempotency-Key", "retry-1")
+                    .param("venueName", testVenue.getVenueName())
+                    .param("date", startTime.split(" ")[0])
+                    .param("startTime", startTime)
+                    .param("hours", "2")
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("order_manage"))
+                    .andExpect(i == 0 ? header().doesNotExist("Idempotent-Replayed")
+                            : header().string("Idempotent-Replayed", "true"));
+        }
+
+        long after = orderService.findUserOrder(testUser.getUserID(), PageRequest.of(0, 1)).getTotalElements();
+        assertEquals(before + 1, after);
+    }
+
+    // 幂等测试 - 相同Idempotency-Key携带不同参数被拒绝
+    @Test
+    void testAddOrder_IdempotencyKeyReusedWithDifferentBody() throws Exception {
+        String startTime = LocalDateTime.now().plusDays(14)
+                .withHour(13).withMinute(0).withSecond(0)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+
+        mockMvc.perform(post("/addOrder.do")
+                .session(session)
+                .header("Idempotency-Key", "retry-2")
+                .param("venueName", testVenue.getVenueName())
+                .param("date", startTime.split(" ")[0])
+                .param("startTime", startTime)
+                .param("hours", "2"))
+                .andExpect(status().is3xxRedirection());
+
+        mockMvc.perform(post("/addOrder.do")
+                .session(session)
+                .header("Idempotency-Key", "retry-2")
+                .param("venueName", testVenue.getVenueName())
+                .param("date", startTime.split(" ")[0])
+                .param("startTime", startTime)
+                .param("hours", "3"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    // 幂等测试 - 不同Idempotency-Key仍按时段冲突处理
+    @Test
+    void testAddOrder_DifferentIdempotencyKeys() throws Exception {
+        String startTime = LocalDateTime.now().plusDays(15)
+                .withHour(17).withMinute(0).withSecond(0)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+
+        mockMvc.perform(post("/addOrder.do")
+                .session(session)
+                .header("Idempotency-Key", "retry-3")
+                .param("venueName", testVenue.getVenueName())
+                .param("date", startTime.split(" ")[0])
+                .param("startTime", startTime)
+                .param("hours", "2"))
+                .andExpect(status().is3xxRedirection());
+
+        mockMvc.perform(post("/addOrder.do")
+                .session(session)
+                .header("Idempotency-Key", "retry-4")
+                .param("venueName", testVenue.getVenueName())
+                .param("date", startTime.split(" ")[0])
+                .param("startTime", startTime)
+                .param("hours", "2"))
+                .andExpect(status().isConflict());
+    }
+
+    // 幂等测试 - 修改订单的重试返回首次结果
+    @Test
+    void testModifyOrder_IdempotentRetry() throws Exception {
+        Order testOrder = orderService.findUserOrder(testUser.getUserID(),
+                PageRequest.of(0, 1)).getContent().get(0);
+        String startTime = LocalDateTime.now().plusDays(16)
+                .withHour(9).withMinute(0).withSecond(0)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/modifyOrder")
+                    .session(session)
+                    .header("Idempotency-Key", "modify-1")
+                    .param("orderID", String.valueOf(testOrder.getOrderID()))
+                    .param("venueName", testVenue.getVenueName())
+                    .param("date", startTime.split(" ")[0])
+                    .param("startTime", startTime)
+                    .param("hours", "3")
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("order_manage"))
+                    .andExpect(i == 0 ? header().doesNotExist("Idempotent-Replayed")
+                            : header().string("Idempotent-Replayed", "true"));
+        }
+
+        Order updatedOrder = orderService.findById(testOrder.getOrderID());
+        assertEquals(3, updatedOrder.getHours());
+    }
+
+    // 幂等测试 - 幂等记录按用户隔离, 另一用户使用相同的Idempotency-Key与参数不会重放他人的结果
+    @Test
+    void testAddOrder_SameKeyDifferentUsersNotReplayed() throws Exception {
+        User otherUser = new User();
+        otherUser.setUserID("otherUser");
+        otherUser.setUserName("Other User");
+        otherUser.setPassword("password");
+        otherUser.setEmail("other@example.com");
+        otherUser.setPhone("12345678902");
+        userService.create(otherUser);
+        MockHttpSession otherSession = new MockHttpSession();
+        otherSession.setAttribute("user", otherUser);
+        String startTime = LocalDateTime.now().plusDays(17)
+                .withHour(15).withMinute(0).withSecond(0)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+
+        mockMvc.perform(post("/addOrder.do")
+                .session(session)
+                .header("Idempotency-Key", "shared-1")
+                .param("venueName", testVenue.getVenueName())
+                .param("date", startTime.split(" ")[0])
+                .param("startTime", startTime)
+                .param("hours", "2"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        // 若按键全局重放, 第二个用户会得到首个用户的重定向结果; 按用户隔离时真正执行并遇到时段冲突
+        mockMvc.perform(post("/addOrder.do")
+                .session(otherSession)
+                .header("Idempotency-Key", "shared-1")
+                .param("venueName", testVenue.getVenueName())
+                .param("date", startTime.split(" ")[0])
+                .param("startTime", startTime)
+                .param("hours", "2"))
+                .andExpect(status().isConflict())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        assertEquals(0, orderService.findUserOrder(otherUser.getUserID(), PageRequest.of(0, 1)).getTotalElements());
+    }
+
     // 性能测试 - 大量订单查询
     @Test
     void testOrderList_Performance() throws Exception {
-        // 创建大量测试订单
+        // 创建大量测试订单, 避开setUp已预订的第1~10天
         for (int i = 0; i < 100; i++) {
             orderService.submit(
                 testVenue.getVenueName(),
-                LocalDateTime.now().plusDays(i + 1),
+                LocalDate.now().plusDays(i + 12).atTime(10, 0),
                 2,
                 testUser.getUserID()
             );
@@ -504,4 +715,62 @@ public class OrderControllerTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    // Slice接口测试 - 用户订单只返回是否有下一页, 不返回总数
+    @Test
+    void testGetOrderSlice() throws Exception {
+        mockMvc.perform(get("/order/getOrderSlice")
+                .session(session)
+                .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(5)))
+                .andExpect(jsonPath("$.content[0].venueName", is(testVenue.getVenueName())))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalPages").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        mockMvc.perform(get("/order/getOrderSlice")
+                .session(session)
+                .param("page", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(5)))
+                .andExpect(jsonPath("$.last").value(true))
+                .andDo(print());
+    }
+
+    // 游标分页测试 - 用户订单逐页翻到末尾, 不重复不遗漏, 最后一页游标为null
+    @Test
+    void testGetOrderCursor_WalkAllPages() throws Exception {
+        List<Integer> orderIDs = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String body = mockMvc.perform(cursor == null
+                        ? get("/order/getOrderCursor").session(session).param("size", "4")
+                        : get("/order/getOrderCursor").session(session).param("cursor", cursor).param("size", "4"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[*].venueName", everyItem(is(testVenue.getVenueName()))))
+                    .andReturn().getResponse().getContentAsString();
+            orderIDs.addAll(JsonPath.<List<Integer>>read(body, "$.content[*].orderID"));
+            cursor = JsonPath.read(body, "$.nextCursor");
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(10, orderIDs.size());
+        Set<Integer> expected = new HashSet<>();
+        orderService.findUserOrder(testUser.getUserID(), PageRequest.of(0, 10))
+                .forEach(order -> expected.add(order.getOrderID()));
+        assertEquals(expected, new HashSet<>(orderIDs));
+    }
+
+    // 游标分页测试 - 非法游标
+    @Test
+    void testGetOrderCursor_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/order/getOrderCursor")
+                .session(session)
+                .param("cursor", "not-a-cursor")
+                .param("size", "4"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,9 +1,12 @@
 package com.demo.pj1.demo.controller.user;
 
+import com.demo.pj1.demo.controller.ResetRateLimiterExtension;
 import com.demo.entity.User;
 import com.demo.service.UserService;
+import com.demo.service.impl.RateLimiter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -25,6 +28,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@ExtendWith(ResetRateLimiterExtension.class)
 @Transactional
 @Rollback
 public class UserControllerTest {
@@ -35,6 +39,9 @@ public class UserControllerTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private RateLimiter rateLimiter;
+
     private User testUser;
     private User testAdmin;
     private MockHttpSession userSession;
@@ -137,6 +144,40 @@ public class UserControllerTest {
         assertEquals("New User", newUser.getUserName());
     }
 
+    // 用户注册限流测试 - 未登录请求按IP限流
+    @Test
+    void testRegister_RateLimitedByIp() throws Exception {
+        for (int i = 0; i < rateLimiter.getCapacity(); i++) {
+            mockMvc.perform(post("/register.do")
+                    .with(request -> {
+                        request.setRemoteAddr("10.0.0.1");
+                        return request;
+                    })
+                    .param("userID", "burstUser" + i)
+                    .param("userName", "Burst User")
+                    .param("password", "password")
+                    .param("email", "burst" + i + "@example.com")
+                    .param("phone", "12345678903")
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                    .andExpect(status().is3xxRedirection());
+        }
+
+        mockMvc.perform(post("/register.do")
+                .with(request -> {
+                    request.setRemoteAddr("10.0.0.1");
+                    return request;
+                })
+                .param("userID", "blockedUser")
+                .param("userName", "Blocked User")
+                .param("password", "password")
+                .param("email", "blocked@example.com")
+                .param("phone", "12345678903")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        assertNull(userService.findByUserID("blockedUser"));
+    }
+
     // 用户注册边界测试
     @Test
     void testRegister_InvalidInput() throws Throwable {
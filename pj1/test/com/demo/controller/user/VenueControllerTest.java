@@ -1,7 +1,9 @@
 package com.demo.pj1.demo.controller.user;
 
 import com.demo.entity.Venue;
+import com.demo.service.OrderService;
 import com.demo.service.VenueService;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +13,9 @@ import org.springframework.test.annotation.Rollback;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,6 +37,12 @@ public class VenueControllerTest {
     @Autowired
     private VenueService venueService;
 
+    @Autowired
+    private OrderService orderService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private List<Venue> testVenues;
 
     @BeforeEach
@@ -307,4 +318,200 @@ public class VenueControllerTest {
                     hasItem(hasProperty("venueName", is("Cache Test Venue")))))
                 .andDo(print());
     }
+
+    // 缓存测试 - 修改场馆后详情页立即可见
+    @Test
+    void testVenue_CacheInvalidationOnUpdate() throws Exception {
+        Venue testVenue = testVenues.get(0);
+
+        // 首次请求，写入缓存
+        mockMvc.perform(get("/venue")
+                .param("venueID", String.valueOf(testVenue.getVenueID())))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("venue",
+                    hasProperty("venueName", is(testVenue.getVenueName()))));
+
+        // 缓存中的对象与持久化上下文脱离, 之后对数据库的修改不会经由同一实例"顺带"出现在缓存里
+        entityManager.flush();
+        entityManager.clear();
+
+        // 以脱离持久化上下文的副本修改场馆, 不改动缓存中的实例
+        Venue changed = new Venue(testVenue.getVenueID(), "Updated Cache Venue", testVenue.getDescription(),
+                199, testVenue.getPicture(), testVenue.getAddress(),
+                testVenue.getOpen_time(), testVenue.getClose_time());
+        venueService.update(changed);
+        entityManager.flush();
+        entityManager.clear();
+
+        // 再次请求，验证返回数据库中的新值而不是缓存中的旧值
+        mockMvc.perform(get("/venue")
+                .param("venueID", String.valueOf(testVenue.getVenueID())))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("venue", allOf(
+                    hasProperty("venueName", is("Updated Cache Venue")),
+                    hasProperty("price", is(199.0))
+                )))
+                .andDo(print());
+    }
+
+    // 缓存测试 - 删除场馆后列表立即不可见
+    @Test
+    void testVenueList_CacheInvalidationOnDelete() throws Exception {
+        mockMvc.perform(get("/venuelist/getVenueList")
+                .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(10));
+
+        venueService.delById(testVenues.get(0).getVenueID());
+
+        mockMvc.perform(get("/venuelist/getVenueList")
+                .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(9))
+                .andDo(print());
+    }
+
+    // 游标分页测试 - 游标逐页翻到末尾的完整序列与页码分页的完整序列相同
+    @Test
+    void testVenueCursor_MatchesPagedList() throws Exception {
+        List<Integer> paged = new ArrayList<>();
+        String firstPage = mockMvc.perform(get("/venuelist/getVenueList")
+                .param("page", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        int totalPages = JsonPath.read(firstPage, "$.totalPages");
+        paged.addAll(JsonPath.<List<Integer>>read(firstPage, "$.content[*].venueID"));
+        for (int page = 2; page <= totalPages; page++) {
+            String body = mockMvc.perform(get("/venuelist/getVenueList")
+                    .param("page", String.valueOf(page)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            paged.addAll(JsonPath.<List<Integer>>read(body, "$.content[*].venueID"));
+        }
+
+        List<Integer> seek = new ArrayList<>();
+        String cursor = null;
+        do {
+            String body = mockMvc.perform(cursor == null
+                        ? get("/venuelist/getVenueCursor").param("size", "3")
+                        : get("/venuelist/getVenueCursor").param("cursor", cursor).param("size", "3"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content", hasSize(lessThanOrEqualTo(3))))
+                    .andReturn().getResponse().getContentAsString();
+            seek.addAll(JsonPath.<List<Integer>>read(body, "$.content[*].venueID"));
+            cursor = JsonPath.read(body, "$.nextCursor");
+        } while (cursor != null);
+
+        assertEquals(10, paged.size());
+        assertEquals(paged, seek);
+    }
+
+    // Slice接口测试 - 只返回是否有下一页, 不返回总数
+    @Test
+    void testGetVenueSlice() throws Exception {
+        mockMvc.perform(get("/venuelist/getVenueSlice")
+                .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(5)))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalPages").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+        mockMvc.perform(get("/venuelist/getVenueSlice")
+                .param("page", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(5)))
+                .andExpect(jsonPath("$.last").value(true))
+                .andDo(print());
+    }
+
+    // 游标分页边界测试 - 游标只按主键定位, 每页大小与剩余行数的关系决定是否还有下一页
+    @Test
+    void testVenueCursor_PageBoundaries() throws Exception {
+        // 每页恰好容纳全部场馆 - 一页返回, 不再给出指向空页的游标
+        mockMvc.perform(get("/venuelist/getVenueCursor").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(10)))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+
+        // 剩余一行 - 第二页只有最后一个场馆, 之后没有游标
+        String first = mockMvc.perform(get("/venuelist/getVenueCursor").param("size", "9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(9)))
+                .andExpect(jsonPath("$.nextCursor").value(notNullValue()))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(first, "$.nextCursor");
+        mockMvc.perform(get("/venuelist/getVenueCursor").param("cursor", cursor).param("size", "9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].venueID", is(testVenues.get(9).getVenueID())))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+
+        // 游标之后新增的场馆在后续页可见, 之前的页不受影响
+        Venue venue = new Venue();
+        venue.setVenueName("Cursor Test Venue 11");
+        venue.setAddress("Cursor Test Address 11");
+        venue.setDescription("Cursor Test Description 11");
+        venue.setPrice(111);
+        venue.setPicture("");
+        venue.setOpen_time("09:00");
+        venue.setClose_time("22:00");
+        venueService.create(venue);
+        mockMvc.perform(get("/venuelist/getVenueCursor").param("cursor", cursor).param("size", "9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[1].venueName", is("Cursor Test Venue 11")));
+    }
+
+    // 月度日历测试 - 一次请求返回整月每天的已预订时段
+    @Test
+    void testVenueAvailability_Month() throws Exception {
+        Venue testVenue = testVenues.get(0);
+        YearMonth month = YearMonth.now().plusMonths(1);
+        orderService.submit(testVenue.getVenueName(), month.atDay(2).atTime(10, 0), 2, "testUser");
+
+        mockMvc.perform(get("/venue/" + testVenue.getVenueID() + "/availability")
+                .param("month", month.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.month", is(month.toString())))
+                .andExpect(jsonPath("$.openTime", is("09:00")))
+                .andExpect(jsonPath("$.closeTime", is("22:00")))
+                .andExpect(jsonPath("$.days", hasSize(month.lengthOfMonth())))
+                .andExpect(jsonPath("$.days[0]", is(0)))
+                // 与时段索引的dayMask相同, 第h位表示h点至h+1点已被预订
+                .andExpect(jsonPath("$.days[1]", is(0b11 << 10)))
+                .andDo(print());
+    }
+
+    // 月度日历测试 - ETag未变化时返回304, 新订单后ETag变化
+    @Test
+    void testVenueAvailability_ETag() throws Exception {
+        Venue testVenue = testVenues.get(0);
+        YearMonth month = YearMonth.now().plusMonths(1);
+        String url = "/venue/" + testVenue.getVenueID() + "/availability";
+
+        String etag = mockMvc.perform(get(url).param("month", month.toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(url).param("month", month.toString())
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        orderService.submit(testVenue.getVenueName(), month.atDay(5).atTime(15, 0), 1, "testUser");
+
+        mockMvc.perform(get(url).param("month", month.toString())
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    // 月度日历测试 - 非法月份
+    @Test
+    void testVenueAvailability_InvalidMonth() throws Exception {
+        mockMvc.perform(get("/venue/" + testVenues.get(0).getVenueID() + "/availability")
+                .param("month", "2026-13"))
+                .andExpect(status().isBadRequest());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,191 @@
+package com.demo.service;
+
+import com.demo.service.impl.IdempotencyStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private MutableClock clock;
+
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        store = new IdempotencyStore(3, Duration.ofMinutes(10), clock);
+    }
+
+    /**
+     * TC:1.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：同一键重复执行
+     * 预期：动作只执行一次，重复请求得到第一次的结果
+     */
+    @Test
+    void testExecute_replaysResult() {
+        AtomicInteger calls = new AtomicInteger();
+
+        IdempotencyStore.Result first = store.execute("user:k1", "fp", () -> "order_manage#" + calls.incrementAndGet());
+        IdempotencyStore.Result second = store.execute("user:k1", "fp", () -> "order_manage#" + calls.incrementAndGet());
+
+        assertEquals(1, calls.get());
+        assertFalse(first.isReplayed());
+        assertTrue(second.isReplayed());
+        assertEquals("order_manage#1", second.getValue());
+    }
+
+    /**
+     * TC:1.1
+     * 类型：黑盒测试-无效等价类
+     * 描述：同一键携带不同的请求参数
+     * 预期：抛出异常，不执行动作
+     */
+    @Test
+    void testExecute_fingerprintMismatch() {
+        store.execute("user:k1", "fp-a", () -> "a");
+
+        assertThrows(IllegalStateException.class, () -> store.execute("user:k1", "fp-b", () -> "b"));
+    }
+
+    /**
+     * TC:1.2
+     * 类型：黑盒测试-边界值
+     * 描述：超过有效期后使用同一键
+     * 预期：记录已过期，动作重新执行
+     */
+    @Test
+    void testExecute_expired() {
+        AtomicInteger calls = new AtomicInteger();
+        store.execute("user:k1", "fp", calls::incrementAndGet);
+
+        clock.advance(Duration.ofMinutes(10).plusSeconds(1));
+        IdempotencyStore.Result result = store.execute("user:k1", "fp", calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+        assertFalse(result.isReplayed());
+    }
+
+    /**
+     * TC:1.3
+     * 类型：黑盒测试-边界值
+     * 描述：记录数超过容量
+     * 预期：最早的记录被淘汰，容量保持不变
+     */
+    @Test
+    void testExecute_boundedCapacity() {
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            store.execute("user:k" + i, "fp", calls::incrementAndGet);
+        }
+
+        assertEquals(3, store.size());
+        assertFalse(store.execute("user:k0", "fp", calls::incrementAndGet).isReplayed());
+        assertTrue(store.execute("user:k3", "fp", calls::incrementAndGet).isReplayed());
+    }
+
+    /**
+     * TC:1.4
+     * 类型：白盒测试-异常路径
+     * 描述：动作抛出异常
+     * 预期：不记录结果，同一键可以重试
+     */
+    @Test
+    void testExecute_failureNotStored() {
+        assertThrows(RuntimeException.class, () -> store.execute("user:k1", "fp", () -> {
+            throw new RuntimeException("Time slot already booked");
+        }));
+
+        IdempotencyStore.Result retry = store.execute("user:k1", "fp", () -> "ok");
+
+        assertFalse(retry.isReplayed());
+        assertEquals("ok", retry.getValue());
+    }
+
+    /**
+     * TC:1.5
+     * 类型：并发测试
+     * 描述：同一键的多个请求同时到达
+     * 预期：动作只执行一次，其余请求等待并得到相同结果
+     */
+    @Test
+    void testExecute_concurrentSameKey() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger replayed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            pool.submit(() -> {
+                start.await();
+                if (store.execute("user:k1", "fp", calls::incrementAndGet).isReplayed()) {
+                    replayed.incrementAndGet();
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(1, calls.get());
+        assertEquals(7, replayed.get());
+    }
+
+    /**
+     * TC:1.6
+     * 类型：白盒测试-语句覆盖
+     * 描述：清空全部记录（测试间重置共享单例）
+     * 预期：记录数为0，同一键重新执行动作
+     */
+    @Test
+    void testClear() {
+        AtomicInteger calls = new AtomicInteger();
+        store.execute("user:k1", "fp", calls::incrementAndGet);
+
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertFalse(store.execute("user:k1", "fp", calls::incrementAndGet).isReplayed());
+        assertEquals(2, calls.get());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
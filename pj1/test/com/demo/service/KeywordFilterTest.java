@@ -0,0 +1,183 @@
+package com.demo.service;
+
+import com.demo.service.impl.KeywordFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordFilterTest {
+
+    private KeywordFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new KeywordFilter();
+        filter.reload(List.of("spam", "免费领取", "vx"), List.of("spamalot"));
+    }
+
+    // ------------------------- 1. check -------------------------
+
+    /**
+     * TC:1.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：不包含任何禁用词的留言
+     * 预期：自动通过
+     */
+    @Test
+    void testCheck_clean() {
+        assertEquals(KeywordFilter.Verdict.PASS, filter.check("场馆很干净，周末人有点多"));
+    }
+
+    /**
+     * TC:1.1
+     * 类型：黑盒测试-有效等价类
+     * 描述：包含禁用词的留言，中英文及大小写混合
+     * 预期：自动拒绝
+     */
+    @Test
+    void testCheck_banned() {
+        assertEquals(KeywordFilter.Verdict.REJECT, filter.check("点击链接免费领取会员"));
+        assertEquals(KeywordFilter.Verdict.REJECT, filter.check("Buy now, no SPAM"));
+        assertEquals(KeywordFilter.Verdict.REJECT, filter.check("加VX了解"));
+    }
+
+    /**
+     * TC:1.2
+     * 类型：白盒测试-条件覆盖
+     * 描述：禁用词只出现在允许词内部
+     * 预期：允许词覆盖该次命中，留言通过
+     */
+    @Test
+    void testCheck_allowedOverridesBanned() {
+        assertEquals(KeywordFilter.Verdict.PASS, filter.check("Tickets for Spamalot on Friday"));
+        assertEquals(KeywordFilter.Verdict.REJECT, filter.check("spamalot and spam"));
+    }
+
+    /**
+     * TC:1.3
+     * 类型：白盒测试-路径覆盖
+     * 描述：禁用词之间存在公共前后缀，命中需经失败指针转移
+     * 预期：仍能找到后缀处的禁用词
+     */
+    @Test
+    void testCheck_failureLinks() {
+        filter.reload(List.of("abcd", "bce"), List.of());
+
+        assertEquals(KeywordFilter.Verdict.REJECT, filter.check("xxabcexx"));
+        assertEquals(KeywordFilter.Verdict.PASS, filter.check("xxabcxx"));
+    }
+
+    /**
+     * TC:1.4
+     * 类型：黑盒测试-边界值
+     * 描述：词典为空
+     * 预期：交由人工审核，保持原有行为
+     */
+    @Test
+    void testCheck_emptyDictionary() {
+        KeywordFilter empty = new KeywordFilter();
+
+        assertEquals(KeywordFilter.Verdict.REVIEW, empty.check("任何内容"));
+    }
+
+    /**
+     * TC:1.5
+     * 类型：黑盒测试-边界值
+     * 描述：空内容与null
+     * 预期：空内容通过，null抛出异常
+     */
+    @Test
+    void testCheck_emptyAndNull() {
+        assertEquals(KeywordFilter.Verdict.PASS, filter.check(""));
+        assertThrows(NullPointerException.class, () -> filter.check(null));
+    }
+
+    /**
+     * TC:1.6
+     * 类型：黑盒测试-边界值
+     * 描述：大词典下扫描长留言，禁用词之间共享长前缀
+     * 预期：只差一个字符的近似词不命中，位于末尾的禁用词仍被找到
+     */
+    @Test
+    void testCheck_largeDictionary() {
+        List<String> banned = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            banned.add("banned" + i + "word");
+        }
+        filter.reload(banned, List.of());
+        String content = "a reasonably long and entirely harmless message banned12wor ".repeat(20);
+
+        assertEquals(10000, filter.size());
+        assertEquals(KeywordFilter.Verdict.PASS, filter.check(content));
+        assertEquals(KeywordFilter.Verdict.REJECT, filter.check(content + "banned9999word"));
+    }
+
+    // ------------------------- 2. reload -------------------------
+
+    /**
+     * TC:2.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：热更新词典
+     * 预期：新词典立即生效，旧词不再命中
+     */
+    @Test
+    void testReload_swapsDictionary() {
+        filter.reload(List.of("广告"), List.of());
+
+        assertEquals(KeywordFilter.Verdict.PASS, filter.check("no spam here"));
+        assertEquals(KeywordFilter.Verdict.REJECT, filter.check("这是广告"));
+        assertEquals(1, filter.size());
+    }
+
+    /**
+     * TC:2.1
+     * 类型：并发测试
+     * 描述：重建词典期间持续检查留言，新旧词典都包含"spam"
+     * 预期：检查不被阻塞，每次读取都得到拒绝，不会读到构建到一半的词典
+     */
+    @Test
+    void testReload_concurrentCheck() throws InterruptedException {
+        AtomicInteger notRejected = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                if (filter.check("spam") != KeywordFilter.Verdict.REJECT) {
+                    notRejected.incrementAndGet();
+                }
+                reads.incrementAndGet();
+            }
+        });
+        reader.start();
+
+        for (int i = 0; i < 200; i++) {
+            filter.reload(i % 2 == 0 ? List.of("spam") : List.of("spam", "junk" + i), List.of());
+        }
+        running.set(false);
+        reader.join(5000);
+
+        assertFalse(reader.isAlive());
+        assertTrue(reads.get() > 0);
+        assertEquals(0, notRejected.get());
+    }
+
+    /**
+     * TC:2.2
+     * 类型：黑盒测试-边界值
+     * 描述：以空词典重新加载（测试间重置共享单例）
+     * 预期：回到交由人工审核的初始行为
+     */
+    @Test
+    void testReload_emptyRestoresReview() {
+        filter.reload(List.of(), List.of());
+
+        assertEquals(0, filter.size());
+        assertEquals(KeywordFilter.Verdict.REVIEW, filter.check("spam"));
+    }
+}
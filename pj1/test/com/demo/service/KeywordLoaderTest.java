@@ -0,0 +1,112 @@
+package com.demo.service;
+
+import com.demo.dao.KeywordDao;
+import com.demo.entity.Keyword;
+import com.demo.service.impl.KeywordFilter;
+import com.demo.service.impl.KeywordLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KeywordLoaderTest {
+
+    @Mock
+    private KeywordDao keywordDao;
+
+    @Spy
+    private KeywordFilter keywordFilter = new KeywordFilter();
+
+    @InjectMocks
+    private KeywordLoader keywordLoader;
+
+    /**
+     * 创建样例关键词用以测试
+     * @return 样例关键词
+     */
+    private Keyword createKeyword(String word, boolean allowed) {
+        Keyword keyword = new Keyword();
+        keyword.setWord(word);
+        keyword.setAllowed(allowed ? 1 : 0);
+        return keyword;
+    }
+
+    // ------------------------- 1. load -------------------------
+
+    /**
+     * TC:1.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：关键词表中同时有禁用词与允许词
+     * 预期：按类型拆分后一次替换过滤器词典，返回禁用词数量
+     */
+    @Test
+    void testLoad_splitsBannedAndAllowed() {
+        when(keywordDao.findAll()).thenReturn(List.of(createKeyword("spam", false),
+                createKeyword("spamalot", true), createKeyword("免费领取", false)));
+
+        assertEquals(2, keywordLoader.load());
+
+        verify(keywordFilter, times(1)).reload(List.of("spam", "免费领取"), List.of("spamalot"));
+        assertEquals(KeywordFilter.Verdict.REJECT, keywordFilter.check("点击免费领取"));
+        assertEquals(KeywordFilter.Verdict.PASS, keywordFilter.check("Tickets for Spamalot"));
+    }
+
+    /**
+     * TC:1.1
+     * 类型：白盒测试-异常路径
+     * 描述：读取关键词表失败
+     * 预期：异常抛出给调用方，过滤器保留原词典
+     */
+    @Test
+    void testLoad_daoFailureKeepsDictionary() {
+        keywordFilter.reload(List.of("spam"), List.of());
+        when(keywordDao.findAll()).thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> keywordLoader.load());
+
+        verify(keywordFilter, times(1)).reload(any(), any());
+        assertEquals(KeywordFilter.Verdict.REJECT, keywordFilter.check("spam"));
+    }
+
+    /**
+     * TC:1.2
+     * 类型：黑盒测试-边界值
+     * 描述：关键词表为空
+     * 预期：过滤器词典被清空，留言交由人工审核
+     */
+    @Test
+    void testLoad_emptyTable() {
+        keywordFilter.reload(List.of("spam"), List.of());
+        when(keywordDao.findAll()).thenReturn(List.of());
+
+        assertEquals(0, keywordLoader.load());
+
+        assertEquals(KeywordFilter.Verdict.REVIEW, keywordFilter.check("spam"));
+    }
+
+    /**
+     * TC:1.3
+     * 类型：白盒测试-语句覆盖
+     * 描述：加载的触发方式
+     * 预期：应用启动完成后自动加载一次
+     */
+    @Test
+    void testLoad_runsOnStartup() throws NoSuchMethodException {
+        EventListener listener = KeywordLoader.class.getMethod("load").getAnnotation(EventListener.class);
+
+        assertNotNull(listener);
+        assertArrayEquals(new Class<?>[]{ApplicationReadyEvent.class}, listener.value());
+    }
+}
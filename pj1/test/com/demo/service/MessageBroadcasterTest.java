@@ -0,0 +1,321 @@
+package com.demo.service;
+
+import com.demo.dao.MessageDao;
+import com.demo.entity.Message;
+import com.demo.entity.vo.MessageVo;
+import com.demo.service.impl.MessageBroadcaster;
+import com.demo.service.impl.MessagePassedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessageBroadcasterTest {
+
+    @Mock
+    private MessageVoService messageVoService;
+
+    @Mock
+    private MessageDao messageDao;
+
+    private static final Duration SEND_TIMEOUT = Duration.ofMillis(100);
+
+    private ExecutorService executor;
+
+    private MessageBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        broadcaster = new MessageBroadcaster(messageVoService, messageDao, 2, SEND_TIMEOUT, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 创建样例已通过留言用以测试
+     * @return 样例留言
+     */
+    private Message createSampleMessage(int messageID) {
+        return new Message(messageID, "user", "content " + messageID, LocalDateTime.now(), MessageService.STATE_PASS);
+    }
+
+    private MessageVo toVo(Message message) {
+        return new MessageVo(message.getMessageID(), message.getUserID(), message.getContent(), message.getTime(),
+                "User", "avatar.jpg", message.getState());
+    }
+
+    private void stubReturnVo() {
+        when(messageVoService.returnVo(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = invocation.getArgument(0);
+            return messages.stream().map(this::toVo).collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * 按ID加载已提交的已通过留言，并构建视图
+     */
+    @SuppressWarnings("unchecked")
+    private void stubLoad() {
+        stubReturnVo();
+        when(messageDao.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Message> messages = new ArrayList<>();
+            ((Iterable<Integer>) invocation.getArgument(0)).forEach(id -> messages.add(createSampleMessage(id)));
+            return messages;
+        });
+    }
+
+    // ------------------------- 1. publish -------------------------
+
+    /**
+     * TC:1.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：多个订阅者时按ID发布一条已通过留言
+     * 预期：每个订阅者都收到该留言视图，视图只构建一次
+     */
+    @Test
+    void testPublish_fanOut() throws InterruptedException {
+        stubLoad();
+        CountDownLatch received = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            broadcaster.subscribe(vo -> received.countDown());
+        }
+
+        broadcaster.publishIDs(List.of(1));
+
+        assertTrue(received.await(2, TimeUnit.SECONDS));
+        verify(messageVoService, times(1)).returnVo(anyList());
+    }
+
+    /**
+     * TC:1.1
+     * 类型：黑盒测试-边界值
+     * 描述：没有订阅者时发布
+     * 预期：不构建视图，不访问数据库
+     */
+    @Test
+    void testPublish_noSubscribers() {
+        broadcaster.publishIDs(List.of(1, 2));
+
+        verifyNoInteractions(messageVoService, messageDao);
+    }
+
+    /**
+     * TC:1.2
+     * 类型：黑盒测试-有效等价类
+     * 描述：批量通过后按ID发布
+     * 预期：一次查询加载全部留言，按顺序推送
+     */
+    @Test
+    void testPublishIDs_singleQuery() throws InterruptedException {
+        stubReturnVo();
+        when(messageDao.findAllById(List.of(1, 2))).thenReturn(List.of(createSampleMessage(1), createSampleMessage(2)));
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        broadcaster.subscribe(vo -> {
+            received.add(vo.getMessageID());
+            done.countDown();
+        });
+
+        broadcaster.publishIDs(List.of(1, 2));
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2), received);
+    }
+
+    // ------------------------- 2. 慢消费者 -------------------------
+
+    /**
+     * TC:2.0
+     * 类型：黑盒测试-边界值
+     * 描述：某个订阅者阻塞，缓冲区被填满
+     * 预期：该订阅者被断开，其他订阅者照常收到全部事件，发布方不被阻塞
+     */
+    @Test
+    void testSlowConsumer_dropped() throws InterruptedException {
+        stubLoad();
+        CountDownLatch block = new CountDownLatch(1);
+        MessageBroadcaster.Subscription slow = broadcaster.subscribe(vo -> {
+            try {
+                block.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CountDownLatch fastReceived = new CountDownLatch(5);
+        MessageBroadcaster.Subscription fast = broadcaster.subscribe(vo -> fastReceived.countDown());
+
+        long start = System.nanoTime();
+        for (int i = 1; i <= 5; i++) {
+            broadcaster.publishIDs(List.of(i));
+        }
+        long publishMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(fastReceived.await(2, TimeUnit.SECONDS));
+        assertTrue(slow.isDropped());
+        assertFalse(fast.isDropped());
+        assertEquals(1, broadcaster.subscriberCount());
+        assertTrue(publishMillis < 500, "publish blocked for " + publishMillis + "ms");
+        block.countDown();
+    }
+
+    /**
+     * TC:2.1
+     * 类型：白盒测试-语句覆盖
+     * 描述：订阅者主动取消
+     * 预期：不再收到事件，订阅数减少
+     */
+    @Test
+    void testCancel() {
+        MessageBroadcaster.Subscription subscription = broadcaster.subscribe(vo -> fail("cancelled subscriber"));
+
+        subscription.cancel();
+        broadcaster.publishIDs(List.of(1));
+
+        assertEquals(0, broadcaster.subscriberCount());
+        verifyNoInteractions(messageVoService);
+    }
+
+    /**
+     * TC:2.2
+     * 类型：白盒测试-异常路径
+     * 描述：订阅者推送时抛出异常（连接已关闭）
+     * 预期：该订阅者被移除，不影响后续发布
+     */
+    @Test
+    void testSinkFailure_removed() throws InterruptedException {
+        stubLoad();
+        CountDownLatch failed = new CountDownLatch(1);
+        MessageBroadcaster.Subscription broken = broadcaster.subscribe(vo -> {
+            failed.countDown();
+            throw new IllegalStateException("connection closed");
+        });
+
+        broadcaster.publishIDs(List.of(1));
+
+        assertTrue(failed.await(2, TimeUnit.SECONDS));
+        for (int i = 0; i < 50 && !broken.isDropped(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(broken.isDropped());
+        assertEquals(0, broadcaster.subscriberCount());
+    }
+
+    /**
+     * TC:2.3
+     * 类型：黑盒测试-边界值
+     * 描述：阻塞的订阅者数量多于推送线程数，每个都卡在一次推送上
+     * 预期：超过发送超时的推送被中断并断开订阅者，线程被释放，快速订阅者照常收到全部事件
+     */
+    @Test
+    void testStalledSinks_exceedPool() throws InterruptedException {
+        stubLoad();
+        CountDownLatch block = new CountDownLatch(1);
+        List<MessageBroadcaster.Subscription> stalled = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            stalled.add(broadcaster.subscribe(vo -> {
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        CountDownLatch fastReceived = new CountDownLatch(5);
+        MessageBroadcaster.Subscription fast = broadcaster.subscribe(vo -> fastReceived.countDown());
+
+        for (int i = 1; i <= 5; i++) {
+            broadcaster.publishIDs(List.of(i));
+        }
+
+        assertTrue(fastReceived.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && stalled.stream().anyMatch(s -> !s.isDropped()); i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(stalled.stream().allMatch(MessageBroadcaster.Subscription::isDropped));
+        assertFalse(fast.isDropped());
+        assertEquals(1, broadcaster.subscriberCount());
+        block.countDown();
+    }
+
+    // ------------------------- 3. 提交后推送 -------------------------
+
+    /**
+     * TC:3.0
+     * 类型：白盒测试-语句覆盖
+     * 描述：收到通过事件
+     * 预期：按事件中的ID加载并推送
+     */
+    @Test
+    void testOnMessagePassed_publishesIDs() throws InterruptedException {
+        stubLoad();
+        CountDownLatch received = new CountDownLatch(2);
+        broadcaster.subscribe(vo -> received.countDown());
+
+        broadcaster.onMessagePassed(new MessagePassedEvent(List.of(4, 5)));
+
+        assertTrue(received.await(2, TimeUnit.SECONDS));
+        verify(messageDao).findAllById(List.of(4, 5));
+    }
+
+    /**
+     * TC:3.1
+     * 类型：白盒测试-语句覆盖
+     * 描述：通过事件的监听方式
+     * 预期：只在事务提交后监听，回滚的事务不会触发推送
+     */
+    @Test
+    void testOnMessagePassed_afterCommitOnly() throws NoSuchMethodException {
+        TransactionalEventListener listener = MessageBroadcaster.class
+                .getMethod("onMessagePassed", MessagePassedEvent.class)
+                .getAnnotation(TransactionalEventListener.class);
+
+        assertNotNull(listener);
+        assertEquals(TransactionPhase.AFTER_COMMIT, listener.phase());
+        assertFalse(listener.fallbackExecution());
+    }
+
+    /**
+     * TC:3.2
+     * 类型：白盒测试-条件覆盖
+     * 描述：加载时留言已不是通过状态（提交后又被修改）
+     * 预期：不推送该留言
+     */
+    @Test
+    void testPublishIDs_skipsNoLongerPassed() throws InterruptedException {
+        when(messageDao.findAllById(List.of(6))).thenReturn(List.of(
+                new Message(6, "user", "content 6", LocalDateTime.now(), MessageService.STATE_REJECT)));
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        broadcaster.subscribe(vo -> received.add(vo.getMessageID()));
+
+        broadcaster.publishIDs(List.of(6));
+
+        Thread.sleep(100);
+        assertTrue(received.isEmpty());
+        verifyNoInteractions(messageVoService);
+    }
+}
@@ -0,0 +1,209 @@
+package com.demo.service;
+
+import com.demo.service.impl.MessageDuplicateIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageDuplicateIndexTest {
+
+    private static final String SPAM = "低价出售羽毛球场周末时段，需要的加微信 abc123456 详聊，先到先得";
+
+    private MutableClock clock;
+
+    private MessageDuplicateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        index = new MessageDuplicateIndex(1000, Duration.ofHours(24), clock);
+    }
+
+    // ------------------------- 1. add -------------------------
+
+    /**
+     * TC:1.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：提交内容完全相同的留言
+     * 预期：归入第一条留言所在的簇
+     */
+    @Test
+    void testAdd_identical() {
+        assertEquals(1, index.add(1, SPAM));
+        assertEquals(1, index.add(2, SPAM));
+
+        assertEquals(Set.of(1, 2), index.cluster(2));
+    }
+
+    /**
+     * TC:1.1
+     * 类型：黑盒测试-有效等价类
+     * 描述：提交只改动少量字符的变体
+     * 预期：识别为近似重复，归入同一簇
+     */
+    @Test
+    void testAdd_nearDuplicate() {
+        index.add(1, SPAM);
+
+        assertEquals(1, index.add(2, SPAM.replace("abc123456", "abc654321")));
+        assertEquals(1, index.add(3, SPAM + "!!"));
+        assertEquals(Set.of(1, 2, 3), index.cluster(1));
+    }
+
+    /**
+     * TC:1.2
+     * 类型：黑盒测试-无效等价类
+     * 描述：提交内容无关的留言
+     * 预期：各自成簇
+     */
+    @Test
+    void testAdd_unrelated() {
+        index.add(1, SPAM);
+
+        assertEquals(2, index.add(2, "场馆的灯光有点暗，希望管理员能检修一下，谢谢"));
+        assertEquals(Set.of(1), index.cluster(1));
+        assertEquals(Set.of(2), index.cluster(2));
+    }
+
+    /**
+     * TC:1.3
+     * 类型：黑盒测试-边界值
+     * 描述：内容短于一个分片的留言
+     * 预期：不参与去重，自成一簇
+     */
+    @Test
+    void testAdd_shortContent() {
+        assertEquals(1, index.add(1, "好"));
+        assertEquals(2, index.add(2, "好"));
+    }
+
+    /**
+     * TC:1.4
+     * 类型：黑盒测试-边界值
+     * 描述：同一模板只替换编号的短留言（3-gram Jaccard约0.85）
+     * 预期：相似度高于阈值，识别为近似重复
+     */
+    @Test
+    void testAdd_templateVariantsClustered() {
+        index.add(1, "Test Message 1");
+
+        assertEquals(1, index.add(2, "Test Message 2"));
+        assertEquals(1, index.add(3, "Test Message 12"));
+        assertEquals(Set.of(1, 2, 3), index.cluster(1));
+    }
+
+    /**
+     * TC:1.5
+     * 类型：黑盒测试-边界值
+     * 描述：只有开头几个字相同的留言（3-gram Jaccard约0.25）
+     * 预期：相似度低于阈值，各自成簇
+     */
+    @Test
+    void testAdd_sharedPrefixNotClustered() {
+        index.add(1, "周末羽毛球场地还有空位吗");
+
+        assertEquals(2, index.add(2, "周末羽毛球场地太贵了，能不能便宜点"));
+        assertEquals(Set.of(1), index.cluster(1));
+    }
+
+    // ------------------------- 2. 淘汰 -------------------------
+
+    /**
+     * TC:2.0
+     * 类型：黑盒测试-边界值
+     * 描述：超过时间窗口后提交相同内容
+     * 预期：旧留言已被淘汰，新留言自成一簇
+     */
+    @Test
+    void testEvict_timeWindow() {
+        index.add(1, SPAM);
+        clock.advance(Duration.ofHours(24).plusSeconds(1));
+
+        assertEquals(2, index.add(2, SPAM));
+        assertEquals(1, index.size());
+    }
+
+    /**
+     * TC:2.1
+     * 类型：黑盒测试-边界值
+     * 描述：窗口内留言数超过容量
+     * 预期：最早加入的留言被淘汰，索引大小不超过容量
+     */
+    @Test
+    void testEvict_capacity() {
+        MessageDuplicateIndex small = new MessageDuplicateIndex(2, Duration.ofHours(24), clock);
+        small.add(1, SPAM);
+        small.add(2, "场馆的灯光有点暗，希望管理员能检修一下，谢谢");
+        small.add(3, "请问周一早上几点开门，可以提前入场热身吗");
+
+        assertEquals(2, small.size());
+        assertEquals(4, small.add(4, SPAM));
+    }
+
+    /**
+     * TC:2.2
+     * 类型：白盒测试-语句覆盖
+     * 描述：删除簇中的一条留言
+     * 预期：该留言从簇与桶中移除
+     */
+    @Test
+    void testRemove() {
+        index.add(1, SPAM);
+        index.add(2, SPAM);
+
+        index.remove(1);
+        assertEquals(Set.of(2), index.cluster(2));
+        assertEquals(Set.of(), index.cluster(1));
+    }
+
+    /**
+     * TC:2.3
+     * 类型：白盒测试-语句覆盖
+     * 描述：清空索引
+     * 预期：所有留言与桶被移除，之后的留言自成一簇
+     */
+    @Test
+    void testClear() {
+        index.add(1, SPAM);
+        index.add(2, SPAM);
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(3, index.add(3, SPAM));
+        assertEquals(Set.of(3), index.cluster(3));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -2,19 +2,28 @@ package com.demo.service;
 
 import com.demo.dao.MessageDao;
 import com.demo.entity.Message;
+import com.demo.service.impl.KeywordFilter;
+import com.demo.service.impl.MessageDuplicateIndex;
+import com.demo.service.impl.MessagePassedEvent;
 import com.demo.service.impl.MessageServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -24,6 +33,15 @@ class MessageServiceTest {
     @Mock
     private MessageDao messageDao;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private KeywordFilter keywordFilter = new KeywordFilter();
+
+    @Spy
+    private MessageDuplicateIndex duplicateIndex = new MessageDuplicateIndex();
+
     @InjectMocks
     private MessageServiceImpl messageService;
 
@@ -296,4 +314,411 @@ class MessageServiceTest {
         assertThrows(IllegalArgumentException.class, () -> messageService.findPassState(null));
     }
 
+    // ------------------------- 9. findPassStateAfter -------------------------
+
+    /**
+     * TC:9.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：从上一页最后一条留言ID之后查找已通过留言
+     * 预期：按主键定位查找，不使用OFFSET分页
+     */
+    @Test
+    void testFindPassStateAfter_seek() {
+        when(messageDao.findByStateAndMessageIDGreaterThanOrderByMessageIDAsc(
+                MessageService.STATE_PASS, 20, PageRequest.of(0, 5))).thenReturn(List.of(createSampleMessage()));
+
+        List<Message> result = messageService.findPassStateAfter(20, 5);
+        assertEquals(1, result.size());
+        verify(messageDao, never()).findAllByState(anyInt(), any());
+    }
+
+    /**
+     * TC:9.1
+     * 类型：黑盒测试-边界值
+     * 描述：每页数量为0
+     * 预期：抛出异常
+     */
+    @Test
+    void testFindPassStateAfter_zeroSize() {
+        assertThrows(IllegalArgumentException.class, () -> messageService.findPassStateAfter(0, 0));
+        verifyNoInteractions(messageDao);
+    }
+
+    // ------------------------- 10. findPassStateSlice -------------------------
+
+    /**
+     * TC:10.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：用有效参数查询已通过留言的Slice
+     * 预期：查找成功，不执行计数查询
+     */
+    @Test
+    void testFindPassStateSlice_wellPageable() {
+        Pageable pageable = PageRequest.of(0, 5);
+        when(messageDao.findSliceByState(MessageService.STATE_PASS, pageable))
+                .thenReturn(new SliceImpl<>(List.of(createSampleMessage()), pageable, true));
+
+        Slice<Message> result = messageService.findPassStateSlice(pageable);
+        assertTrue(result.hasNext());
+        verify(messageDao, never()).findAllByState(anyInt(), any());
+    }
+
+    /**
+     * TC:10.1
+     * 类型：黑盒测试-无效等价类
+     * 描述：用null参数查询
+     * 预期：抛出异常
+     */
+    @Test
+    void testFindPassStateSlice_nullPageable() {
+        assertThrows(IllegalArgumentException.class, () -> messageService.findPassStateSlice(null));
+    }
+
+    // ------------------------- 11. confirmMessages / rejectMessages -------------------------
+
+    /**
+     * TC:11.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：批量通过一组留言，其中包含已审核与不存在的ID
+     * 预期：只有待审核留言被通过，一次集合更新，返回每个ID的结果
+     */
+    @Test
+    void testConfirmMessages_onlyNoAudit() {
+        List<Integer> ids = List.of(1, 2, 3, 999);
+        when(messageDao.lockMessageIDsByState(ids, MessageService.STATE_NO_AUDIT)).thenReturn(List.of(1, 3));
+        when(messageDao.updateStateByIDs(MessageService.STATE_PASS, MessageService.STATE_NO_AUDIT, List.of(1, 3)))
+                .thenReturn(2);
+
+        Map<Integer, Boolean> result = messageService.confirmMessages(ids);
+        assertEquals(4, result.size());
+        assertTrue(result.get(1));
+        assertFalse(result.get(2));
+        assertTrue(result.get(3));
+        assertFalse(result.get(999));
+        verify(messageDao, never()).findByMessageID(anyInt());
+        verify(messageDao, never()).updateState(anyInt(), anyInt());
+    }
+
+    /**
+     * TC:11.1
+     * 类型：黑盒测试-有效等价类
+     * 描述：批量拒绝一组待审核留言
+     * 预期：一次集合更新为拒绝状态
+     */
+    @Test
+    void testRejectMessages_noAudit() {
+        List<Integer> ids = List.of(4, 5);
+        when(messageDao.lockMessageIDsByState(ids, MessageService.STATE_NO_AUDIT)).thenReturn(ids);
+        when(messageDao.updateStateByIDs(MessageService.STATE_REJECT, MessageService.STATE_NO_AUDIT, ids))
+                .thenReturn(2);
+
+        Map<Integer, Boolean> result = messageService.rejectMessages(ids);
+        assertTrue(result.get(4));
+        assertTrue(result.get(5));
+        verify(messageDao, times(1)).updateStateByIDs(anyInt(), anyInt(), any());
+    }
+
+    /**
+     * TC:11.2
+     * 类型：黑盒测试-边界值
+     * 描述：批量通过空列表
+     * 预期：返回空结果，不访问数据库
+     */
+    @Test
+    void testConfirmMessages_emptyList() {
+        assertTrue(messageService.confirmMessages(List.of()).isEmpty());
+        verifyNoInteractions(messageDao);
+    }
+
+    /**
+     * TC:11.3
+     * 类型：黑盒测试-无效等价类
+     * 描述：批量通过null
+     * 预期：抛出异常
+     */
+    @Test
+    void testConfirmMessages_null() {
+        assertThrows(IllegalArgumentException.class, () -> messageService.confirmMessages(null));
+    }
+
+    /**
+     * TC:11.4
+     * 类型：白盒测试-条件覆盖
+     * 描述：没有一条留言处于待审核状态
+     * 预期：不执行更新，全部返回false
+     */
+    @Test
+    void testRejectMessages_noneEligible() {
+        List<Integer> ids = List.of(6, 7);
+        when(messageDao.lockMessageIDsByState(ids, MessageService.STATE_NO_AUDIT)).thenReturn(List.of());
+
+        Map<Integer, Boolean> result = messageService.rejectMessages(ids);
+        assertFalse(result.get(6));
+        assertFalse(result.get(7));
+        verify(messageDao, never()).updateStateByIDs(anyInt(), anyInt(), any());
+    }
+
+    /**
+     * TC:11.5
+     * 类型：白盒测试-语句覆盖
+     * 描述：以悲观写锁锁定待审核留言后执行集合更新
+     * 预期：锁定的行在提交前不会被其他事务修改，按锁定结果报告，不再回读留言状态
+     */
+    @Test
+    void testConfirmMessages_trustsLockedRows() {
+        List<Integer> ids = List.of(1, 2, 3);
+        when(messageDao.lockMessageIDsByState(ids, MessageService.STATE_NO_AUDIT)).thenReturn(List.of(1, 3));
+        when(messageDao.updateStateByIDs(MessageService.STATE_PASS, MessageService.STATE_NO_AUDIT, List.of(1, 3)))
+                .thenReturn(2);
+
+        Map<Integer, Boolean> result = messageService.confirmMessages(ids);
+        assertEquals(Map.of(1, true, 2, false, 3, true), result);
+        InOrder inOrder = inOrder(messageDao);
+        inOrder.verify(messageDao).lockMessageIDsByState(ids, MessageService.STATE_NO_AUDIT);
+        inOrder.verify(messageDao).updateStateByIDs(MessageService.STATE_PASS, MessageService.STATE_NO_AUDIT,
+                List.of(1, 3));
+        verifyNoMoreInteractions(messageDao);
+    }
+
+    // ------------------------- 12. delMessages -------------------------
+
+    /**
+     * TC:12.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：批量删除一组留言，其中包含不存在的ID
+     * 预期：一次集合删除，存在的ID返回true，不存在的返回false
+     */
+    @Test
+    void testDelMessages_mixed() {
+        List<Integer> ids = List.of(1, 2, 999);
+        when(messageDao.findExistingIDs(ids)).thenReturn(List.of(1, 2));
+        when(messageDao.deleteByIDs(List.of(1, 2))).thenReturn(2);
+
+        Map<Integer, Boolean> result = messageService.delMessages(ids);
+        assertTrue(result.get(1));
+        assertTrue(result.get(2));
+        assertFalse(result.get(999));
+        verify(messageDao, never()).deleteById(anyInt());
+    }
+
+    /**
+     * TC:12.1
+     * 类型：黑盒测试-边界值
+     * 描述：批量删除空列表
+     * 预期：返回空结果，不访问数据库
+     */
+    @Test
+    void testDelMessages_emptyList() {
+        assertTrue(messageService.delMessages(List.of()).isEmpty());
+        verifyNoInteractions(messageDao);
+    }
+
+    // ------------------------- 13. create 预审核 -------------------------
+
+    /**
+     * TC:13.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：词典已加载时创建不含禁用词的留言
+     * 预期：保存为已通过状态
+     */
+    @Test
+    void testCreate_cleanMsgAutoPass() {
+        keywordFilter.reload(List.of("spam"), List.of());
+        Message message = createSampleMessage();
+        when(messageDao.save(any(Message.class))).thenReturn(message);
+
+        messageService.create(message);
+        verify(messageDao).save(argThat(saved -> saved.getState() == MessageService.STATE_PASS));
+    }
+
+    /**
+     * TC:13.1
+     * 类型：黑盒测试-有效等价类
+     * 描述：创建包含禁用词的留言
+     * 预期：保存为已拒绝状态
+     */
+    @Test
+    void testCreate_spamMsgAutoReject() {
+        keywordFilter.reload(List.of("spam"), List.of());
+        Message message = new Message(1, "user1", "cheap SPAM here", LocalDateTime.now(), MessageService.STATE_NO_AUDIT);
+        when(messageDao.save(any(Message.class))).thenReturn(message);
+
+        messageService.create(message);
+        verify(messageDao).save(argThat(saved -> saved.getState() == MessageService.STATE_REJECT));
+    }
+
+    /**
+     * TC:13.2
+     * 类型：白盒测试-条件覆盖
+     * 描述：词典为空时创建留言
+     * 预期：保持待审核状态，交由人工审核
+     */
+    @Test
+    void testCreate_emptyDictionaryKeepsNoAudit() {
+        Message message = createSampleMessage();
+        when(messageDao.save(any(Message.class))).thenReturn(message);
+
+        messageService.create(message);
+        verify(keywordFilter).check("Test content");
+        verify(messageDao).save(argThat(saved -> saved.getState() == MessageService.STATE_NO_AUDIT));
+    }
+
+    /**
+     * TC:13.3
+     * 类型：白盒测试-条件覆盖
+     * 描述：词典为空时创建调用方已设置为通过状态的留言（如管理员导入）
+     * 预期：预审核结果为人工审核时不覆盖调用方设置的状态
+     */
+    @Test
+    void testCreate_reviewKeepsCallerState() {
+        Message message = new Message(1, "user1", "Test content", LocalDateTime.now(), MessageService.STATE_PASS);
+        when(messageDao.save(any(Message.class))).thenReturn(message);
+
+        messageService.create(message);
+        verify(messageDao).save(argThat(saved -> saved.getState() == MessageService.STATE_PASS));
+    }
+
+    // ------------------------- 14. 近似重复 -------------------------
+
+    /**
+     * TC:14.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：先后创建两条近似重复的留言
+     * 预期：第二条留言被归入第一条所在的簇
+     */
+    @Test
+    void testCreate_nearDuplicateClustered() {
+        String content = "低价出售羽毛球场周末时段，需要的加微信 abc123456 详聊";
+        Message first = new Message(1, "spammer", content, LocalDateTime.now(), MessageService.STATE_NO_AUDIT);
+        Message second = new Message(2, "spammer", content + "!", LocalDateTime.now(), MessageService.STATE_NO_AUDIT);
+        when(messageDao.save(any(Message.class))).thenReturn(first, second);
+
+        messageService.create(first);
+        messageService.create(second);
+        assertEquals(Set.of(1, 2), messageService.findCluster(2));
+    }
+
+    /**
+     * TC:14.1
+     * 类型：黑盒测试-有效等价类
+     * 描述：拒绝一个簇
+     * 预期：一次集合更新拒绝簇内全部待审核留言
+     */
+    @Test
+    void testRejectCluster() {
+        doReturn(Set.of(1, 2, 3)).when(duplicateIndex).cluster(1);
+        when(messageDao.lockMessageIDsByState(anyCollection(), eq(MessageService.STATE_NO_AUDIT)))
+                .thenReturn(List.of(1, 2, 3));
+        when(messageDao.updateStateByIDs(eq(MessageService.STATE_REJECT), eq(MessageService.STATE_NO_AUDIT),
+                anyCollection())).thenReturn(3);
+
+        Map<Integer, Boolean> result = messageService.rejectCluster(1);
+        assertEquals(3, result.size());
+        assertTrue(result.values().stream().allMatch(Boolean::booleanValue));
+        verify(messageDao, times(1)).updateStateByIDs(anyInt(), anyInt(), any());
+    }
+
+    /**
+     * TC:14.2
+     * 类型：黑盒测试-边界值
+     * 描述：对已被淘汰出索引的留言执行簇操作
+     * 预期：只处理该留言本身
+     */
+    @Test
+    void testConfirmCluster_evictedMessage() {
+        when(messageDao.lockMessageIDsByState(List.of(7), MessageService.STATE_NO_AUDIT)).thenReturn(List.of(7));
+        when(messageDao.updateStateByIDs(MessageService.STATE_PASS, MessageService.STATE_NO_AUDIT, List.of(7)))
+                .thenReturn(1);
+
+        Map<Integer, Boolean> result = messageService.confirmCluster(7);
+        assertEquals(Map.of(7, true), result);
+    }
+
+    /**
+     * TC:14.3
+     * 类型：白盒测试-语句覆盖
+     * 描述：删除留言
+     * 预期：同时从近似重复索引中移除
+     */
+    @Test
+    void testDelById_removesFromIndex() {
+        doNothing().when(messageDao).deleteById(1);
+
+        messageService.delById(1);
+        verify(duplicateIndex).remove(1);
+    }
+
+    // ------------------------- 15. 推送已通过留言 -------------------------
+
+    private static MessagePassedEvent passedEvent(Integer... ids) {
+        return argThat(event -> event != null && event.getMessageIDs().equals(List.of(ids)));
+    }
+
+    /**
+     * TC:15.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：通过一条留言
+     * 预期：在事务内只发布通过事件，由广播器在提交后推送
+     */
+    @Test
+    void testConfirmMessage_publishesPassedEvent() {
+        when(messageDao.findByMessageID(1)).thenReturn(createSampleMessage());
+
+        messageService.confirmMessage(1);
+        InOrder inOrder = inOrder(messageDao, eventPublisher);
+        inOrder.verify(messageDao).updateState(MessageService.STATE_PASS, 1);
+        inOrder.verify(eventPublisher).publishEvent(passedEvent(1));
+    }
+
+    /**
+     * TC:15.1
+     * 类型：黑盒测试-有效等价类
+     * 描述：批量通过留言，其中一条已不是待审核状态，未被锁定
+     * 预期：事件只包含锁定并更新的留言ID
+     */
+    @Test
+    void testConfirmMessages_publishesUpdatedIDs() {
+        List<Integer> ids = List.of(1, 2, 3);
+        when(messageDao.lockMessageIDsByState(ids, MessageService.STATE_NO_AUDIT)).thenReturn(List.of(1, 3));
+        when(messageDao.updateStateByIDs(MessageService.STATE_PASS, MessageService.STATE_NO_AUDIT, List.of(1, 3)))
+                .thenReturn(2);
+
+        messageService.confirmMessages(ids);
+        verify(eventPublisher).publishEvent(passedEvent(1, 3));
+    }
+
+    /**
+     * TC:15.2
+     * 类型：白盒测试-条件覆盖
+     * 描述：拒绝留言、创建待审核留言、批量通过时没有留言被更新
+     * 预期：不发布事件
+     */
+    @Test
+    void testRejectAndCreate_doNotPublish() {
+        Message message = createSampleMessage();
+        when(messageDao.findByMessageID(1)).thenReturn(message);
+        when(messageDao.save(any(Message.class))).thenReturn(message);
+        when(messageDao.lockMessageIDsByState(List.of(5), MessageService.STATE_NO_AUDIT)).thenReturn(List.of());
+
+        messageService.rejectMessage(1);
+        messageService.create(createSampleMessage());
+        messageService.confirmMessages(List.of(5));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    /**
+     * TC:15.3
+     * 类型：黑盒测试-有效等价类
+     * 描述：创建被关键词预审核自动通过的留言
+     * 预期：保存后发布通过事件
+     */
+    @Test
+    void testCreate_autoPassPublishesPassedEvent() {
+        keywordFilter.reload(List.of("spam"), List.of());
+        Message message = createSampleMessage();
+        when(messageDao.save(any(Message.class))).thenReturn(message);
+
+        messageService.create(message);
+        verify(eventPublisher).publishEvent(passedEvent(1));
+    }
 }
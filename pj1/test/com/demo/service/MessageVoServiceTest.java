@@ -11,10 +11,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -101,8 +107,7 @@ class MessageVoServiceTest {
         List<Message> messages = List.of(createSampleMessage());
         User user = createSampleUser();
 
-        when(messageDao.findByMessageID(1)).thenReturn(createSampleMessage());
-        when(userDao.findByUserID("user")).thenReturn(user);
+        when(userDao.findByUserIDIn(Set.of("user"))).thenReturn(List.of(user));
 
         List<MessageVo> result = messageVoService.returnVo(messages);
 
@@ -110,9 +115,12 @@ class MessageVoServiceTest {
         MessageVo vo = result.get(0);
         assertEquals(1, vo.getMessageID());
         assertEquals("user", vo.getUserID());
+        assertEquals("User", vo.getUserName());
+        assertEquals("avatar.jpg", vo.getPicture());
 
-        verify(messageDao).findByMessageID(anyInt());
-        verify(userDao).findByUserID(any());
+        verify(messageDao, never()).findByMessageID(anyInt());
+        verify(userDao, never()).findByUserID(any());
+        verify(userDao).findByUserIDIn(any());
     }
 
     /**
@@ -126,7 +134,7 @@ class MessageVoServiceTest {
         assertThrows(NullPointerException.class, () -> messageVoService.returnVo(null));
 
         verify(messageDao, never()).findByMessageID(anyInt());
-        verify(userDao, never()).findByUserID(any());
+        verify(userDao, never()).findByUserIDIn(any());
     }
 
     /**
@@ -142,7 +150,88 @@ class MessageVoServiceTest {
         assertThrows(NullPointerException.class, () -> messageVoService.returnVo(messages));
 
         verify(messageDao, never()).findByMessageID(anyInt());
-        verify(userDao, never()).findByUserID(any());
+        verify(userDao, never()).findByUserIDIn(any());
+    }
+
+    /**
+     * TC:2.3
+     * 类型：白盒测试-语句覆盖
+     * 描述：多条留言来自少量用户
+     * 预期：用户只按去重后的ID批量查询一次，视图顺序与留言顺序一致
+     */
+    @Test
+    void testReturnVo_batchUserLookup() {
+        User other = new User(2, "other", "Other", "password", "other@example.com", "13800138001", 0, "other.jpg");
+        List<Message> messages = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            messages.add(new Message(i, i % 2 == 0 ? "user" : "other", "Content " + i,
+                    LocalDateTime.now(), MessageService.STATE_PASS));
+        }
+
+        when(userDao.findByUserIDIn(Set.of("user", "other"))).thenReturn(List.of(createSampleUser(), other));
+
+        List<MessageVo> result = messageVoService.returnVo(messages);
+
+        assertEquals(20, result.size());
+        assertEquals(1, result.get(0).getMessageID());
+        assertEquals("Other", result.get(0).getUserName());
+        assertEquals("other.jpg", result.get(0).getPicture());
+        assertEquals("User", result.get(1).getUserName());
+        assertEquals("Content 2", result.get(1).getContent());
+
+        verify(userDao, times(1)).findByUserIDIn(any());
+        verifyNoInteractions(messageDao);
+    }
+
+    /**
+     * TC:2.4
+     * 类型：黑盒测试-边界值
+     * 描述：用空列表构建视图
+     * 预期：返回空列表，不访问数据库
+     */
+    @Test
+    void testReturnVo_emptyList() {
+        List<MessageVo> result = messageVoService.returnVo(Collections.emptyList());
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(messageDao, userDao);
+    }
+
+    // ------------------------- 3. findPassStateVo -------------------------
+
+    /**
+     * TC:3.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：用有效分页参数查询已通过留言视图
+     * 预期：直接返回DAO投影查询得到的视图分页，不再加载留言与用户实体
+     */
+    @Test
+    void testFindPassStateVo_wellPageable() {
+        Pageable pageable = PageRequest.of(0, 5);
+        MessageVo vo = new MessageVo(1, "user", "Test content", LocalDateTime.now(), "User", "avatar.jpg",
+                MessageService.STATE_PASS);
+        when(messageDao.findVoByState(MessageService.STATE_PASS, pageable))
+                .thenReturn(new PageImpl<>(List.of(vo), pageable, 1));
+
+        Page<MessageVo> result = messageVoService.findPassStateVo(pageable);
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals("User", result.getContent().get(0).getUserName());
+        assertEquals("avatar.jpg", result.getContent().get(0).getPicture());
+        verify(messageDao, never()).findAllByState(anyInt(), any());
+        verifyNoInteractions(userDao);
     }
-}
 
+    /**
+     * TC:3.1
+     * 类型：黑盒测试-无效等价类
+     * 描述：用null分页参数查询已通过留言视图
+     * 预期：抛出异常，不访问数据库
+     */
+    @Test
+    void testFindPassStateVo_nullPageable() {
+        assertThrows(IllegalArgumentException.class, () -> messageVoService.findPassStateVo(null));
+
+        verifyNoInteractions(messageDao, userDao);
+    }
+}
@@ -11,6 +11,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 
 import javax.persistence.EntityNotFoundException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -247,4 +252,193 @@ class NewsServiceImplTest {
         // 验证DAO调用
         verify(newsDao, times(1)).save(invalidNews);
     }
-}
\ No newline at end of file
+
+    // =============== findBefore 游标分页测试 ===============
+    @Test
+    void findBefore_WithoutCursor_ShouldReturnNewestFirst() {
+        // 模拟DAO行为
+        when(newsDao.findAllByOrderByTimeDescNewsIDDesc(PageRequest.of(0, 5)))
+                .thenReturn(Collections.singletonList(validNews));
+
+        // 执行测试
+        List<News> result = newsService.findBefore(null, 0, 5);
+
+        // 验证结果
+        assertEquals(1, result.size());
+
+        // 验证DAO调用
+        verify(newsDao, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void findBefore_WithCursor_ShouldSeekPastLastRow() {
+        LocalDateTime lastTime = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+        // 模拟DAO行为
+        when(newsDao.findBefore(lastTime, 7, PageRequest.of(0, 5)))
+                .thenReturn(Collections.singletonList(validNews));
+
+        // 执行测试
+        List<News> result = newsService.findBefore(lastTime, 7, 5);
+
+        // 验证结果
+        assertEquals(validNews, result.get(0));
+
+        // 验证DAO调用
+        verify(newsDao, times(1)).findBefore(lastTime, 7, PageRequest.of(0, 5));
+    }
+
+    @Test
+    void findBefore_WithZeroSize_ShouldThrowException() {
+        // 执行测试并验证异常
+        assertThrows(IllegalArgumentException.class, () -> newsService.findBefore(null, 0, 0));
+
+        // 验证DAO未被调用
+        verifyNoInteractions(newsDao);
+    }
+
+    // =============== findSlice 测试 ===============
+    @Test
+    void findSlice_WithValidPageable_ShouldNotCount() {
+        // 模拟DAO行为
+        Slice<News> expectedSlice = new SliceImpl<>(Collections.singletonList(validNews), validPageable, true);
+        when(newsDao.findSliceBy(validPageable)).thenReturn(expectedSlice);
+
+        // 执行测试
+        Slice<News> result = newsService.findSlice(validPageable);
+
+        // 验证结果
+        assertTrue(result.hasNext());
+        assertEquals(validNews, result.getContent().get(0));
+
+        // 验证DAO调用
+        verify(newsDao, never()).findAll(any(Pageable.class));
+        verify(newsDao, never()).count();
+    }
+
+    @Test
+    void findSlice_WithNullPageable_ShouldThrowException() {
+        // 执行测试并验证异常
+        assertThrows(IllegalArgumentException.class, () -> newsService.findSlice(null));
+
+        // 验证DAO未被调用
+        verifyNoInteractions(newsDao);
+    }
+
+    // =============== countAll 缓存测试 ===============
+    @Test
+    void countAll_CalledTwice_ShouldCountOnce() {
+        // 模拟DAO行为
+        when(newsDao.count()).thenReturn(10L);
+
+        // 执行测试
+        assertEquals(10L, newsService.countAll());
+        assertEquals(10L, newsService.countAll());
+
+        // 验证DAO调用
+        verify(newsDao, times(1)).count();
+    }
+
+    @Test
+    void countAll_AfterCreate_ShouldRecount() {
+        // 模拟DAO行为
+        when(newsDao.count()).thenReturn(10L, 11L);
+        when(newsDao.save(validNews)).thenReturn(validNews);
+
+        // 执行测试
+        newsService.countAll();
+        newsService.create(validNews);
+
+        // 验证结果
+        assertEquals(11L, newsService.countAll());
+        verify(newsDao, times(2)).count();
+    }
+
+    @Test
+    void countAll_AfterDelete_ShouldRecount() {
+        // 模拟DAO行为
+        when(newsDao.count()).thenReturn(10L, 9L);
+        doNothing().when(newsDao).deleteById(1);
+
+        // 执行测试
+        newsService.countAll();
+        newsService.delById(1);
+
+        // 验证结果
+        assertEquals(9L, newsService.countAll());
+        verify(newsDao, times(2)).count();
+    }
+
+    @Test
+    void countAll_AfterRejectedDelete_ShouldKeepCache() {
+        // 模拟DAO行为
+        when(newsDao.count()).thenReturn(10L);
+
+        // 执行测试
+        newsService.countAll();
+        assertThrows(IllegalArgumentException.class, () -> newsService.delById(0));
+
+        // 验证结果
+        assertEquals(10L, newsService.countAll());
+        verify(newsDao, times(1)).count();
+    }
+
+    @Test
+    void countAll_WithinTtl_ShouldServeCached() {
+        // 模拟DAO行为：绕过服务写入的数据不会触发缓存失效
+        MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        NewsServiceImpl service = new NewsServiceImpl(newsDao, Duration.ofSeconds(30), clock);
+        when(newsDao.count()).thenReturn(10L, 12L);
+
+        // 执行测试：有效期内最多返回过期30秒的总数
+        service.countAll();
+        clock.advance(Duration.ofSeconds(30));
+
+        // 验证结果
+        assertEquals(10L, service.countAll());
+        verify(newsDao, times(1)).count();
+    }
+
+    @Test
+    void countAll_AfterTtl_ShouldRecount() {
+        // 模拟DAO行为
+        MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        NewsServiceImpl service = new NewsServiceImpl(newsDao, Duration.ofSeconds(30), clock);
+        when(newsDao.count()).thenReturn(10L, 12L);
+
+        // 执行测试：超过有效期后重新计数
+        service.countAll();
+        clock.advance(Duration.ofSeconds(31));
+
+        // 验证结果
+        assertEquals(12L, service.countAll());
+        verify(newsDao, times(2)).count();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
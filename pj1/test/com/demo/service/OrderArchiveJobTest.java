@@ -0,0 +1,229 @@
+package com.demo.service;
+
+import com.demo.dao.OrderArchiveDao;
+import com.demo.dao.OrderDao;
+import com.demo.entity.Order;
+import com.demo.entity.OrderArchive;
+import com.demo.service.impl.OrderArchiveJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderArchiveJobTest {
+
+    @Mock
+    private OrderDao orderDao;
+
+    @Mock
+    private OrderArchiveDao orderArchiveDao;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private OrderArchiveJob job;
+
+    private final TransactionStatus status = new SimpleTransactionStatus();
+
+    @BeforeEach
+    void setUp() {
+        // 每批的复制与删除在同一个事务中执行
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(status);
+        job.setRetentionDays(180);
+        job.setBatchSize(2);
+        job.setMaxBatches(10);
+    }
+
+    /**
+     * 创建样例订单用以测试
+     * @return 样例订单
+     */
+    private Order createSampleOrder(int orderID, int state) {
+        Order order = new Order();
+        order.setOrderID(orderID);
+        order.setUserID("user");
+        order.setVenueID(1);
+        order.setState(state);
+        order.setOrderTime(LocalDateTime.now().minusYears(1));
+        order.setStartTime(LocalDateTime.now().minusYears(1).plusDays(1));
+        order.setHours(2);
+        order.setTotal(200);
+        return order;
+    }
+
+    private static Collection<Integer> coldStates() {
+        return argThat(states -> states != null && states.size() == 2
+                && states.contains(OrderService.STATE_FINISH) && states.contains(OrderService.STATE_REJECT));
+    }
+
+    /**
+     * TC:1.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：存在超过保留期的已完成与已拒绝订单
+     * 预期：先写入归档表再从热表删除，字段原样保留
+     */
+    @Test
+    void testRun_movesColdOrders() {
+        Order finished = createSampleOrder(1, OrderService.STATE_FINISH);
+        when(orderDao.findArchivable(coldStates(), any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(finished));
+
+        int archived = job.run();
+
+        assertEquals(1, archived);
+        InOrder inOrder = inOrder(orderArchiveDao, orderDao);
+        inOrder.verify(orderArchiveDao).saveAll(argThat(rows -> {
+            List<OrderArchive> list = new ArrayList<>();
+            rows.forEach(list::add);
+            OrderArchive row = list.get(0);
+            return list.size() == 1 && row.getOrderID() == 1 && "user".equals(row.getUserID())
+                    && row.getState() == OrderService.STATE_FINISH && row.getTotal() == 200
+                    && finished.getStartTime().equals(row.getStartTime());
+        }));
+        inOrder.verify(orderDao).deleteAllInBatch(List.of(finished));
+        verify(transactionManager).commit(status);
+    }
+
+    /**
+     * TC:1.1
+     * 类型：白盒测试-条件覆盖
+     * 描述：保留期截止时间的计算
+     * 预期：只查询开始时间早于 now - retentionDays 的订单
+     */
+    @Test
+    void testRun_cutoff() {
+        LocalDateTime before = LocalDateTime.now().minusDays(180);
+        when(orderDao.findArchivable(anyCollection(), any(), anyInt())).thenReturn(List.of());
+
+        job.run();
+
+        LocalDateTime after = LocalDateTime.now().minusDays(180);
+        verify(orderDao).findArchivable(anyCollection(),
+                argThat(cutoff -> !cutoff.isBefore(before) && !cutoff.isAfter(after)), eq(2));
+    }
+
+    /**
+     * TC:1.2
+     * 类型：白盒测试-循环覆盖
+     * 描述：待归档订单多于一批
+     * 预期：分批搬迁直到某批不满
+     */
+    @Test
+    void testRun_multipleBatches() {
+        when(orderDao.findArchivable(anyCollection(), any(), eq(2)))
+                .thenReturn(List.of(createSampleOrder(1, OrderService.STATE_FINISH),
+                                createSampleOrder(2, OrderService.STATE_REJECT)),
+                        List.of(createSampleOrder(3, OrderService.STATE_FINISH)));
+
+        assertEquals(3, job.run());
+
+        verify(orderArchiveDao, times(2)).saveAll(any());
+        verify(orderDao, times(2)).deleteAllInBatch(any());
+        assertEquals(3, job.getLastRunArchived());
+    }
+
+    /**
+     * TC:1.3
+     * 类型：黑盒测试-边界值
+     * 描述：没有需要归档的订单
+     * 预期：不写归档表也不删除
+     */
+    @Test
+    void testRun_nothingToArchive() {
+        when(orderDao.findArchivable(anyCollection(), any(), anyInt())).thenReturn(List.of());
+
+        assertEquals(0, job.run());
+
+        verifyNoInteractions(orderArchiveDao);
+        verify(orderDao, never()).deleteAllInBatch(any());
+    }
+
+    /**
+     * TC:1.4
+     * 类型：黑盒测试-无效等价类
+     * 描述：保留期配置为负数
+     * 预期：抛出异常
+     */
+    @Test
+    void testSetRetentionDays_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> job.setRetentionDays(-1));
+    }
+
+    /**
+     * TC:1.5
+     * 类型：黑盒测试-边界值
+     * 描述：积压超过单次运行的批数上限
+     * 预期：本次只搬迁maxBatches批，剩余留给下次运行
+     */
+    @Test
+    void testRun_boundedByMaxBatches() {
+        job.setMaxBatches(2);
+        when(orderDao.findArchivable(anyCollection(), any(), eq(2)))
+                .thenReturn(List.of(createSampleOrder(1, OrderService.STATE_FINISH),
+                                createSampleOrder(2, OrderService.STATE_REJECT)),
+                        List.of(createSampleOrder(3, OrderService.STATE_FINISH),
+                                createSampleOrder(4, OrderService.STATE_FINISH)));
+
+        assertEquals(4, job.run());
+
+        verify(orderDao, times(2)).findArchivable(anyCollection(), any(), anyInt());
+        verify(orderArchiveDao, times(2)).saveAll(any());
+        verify(orderDao, times(2)).deleteAllInBatch(any());
+        assertEquals(4, job.getLastRunArchived());
+    }
+
+    /**
+     * TC:1.6
+     * 类型：黑盒测试-无效等价类
+     * 描述：批数上限配置为非正数
+     * 预期：抛出异常
+     */
+    @Test
+    void testSetMaxBatches_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> job.setMaxBatches(0));
+    }
+
+    /**
+     * TC:1.7
+     * 类型：白盒测试-异常路径
+     * 描述：写入归档表成功但从热表删除失败
+     * 预期：本批事务回滚，归档行随之撤销，下次运行不会产生重复归档行；异常向上抛出且不计入归档数
+     */
+    @Test
+    void testRun_deleteFailureRollsBackBatch() {
+        List<Order> batch = List.of(createSampleOrder(1, OrderService.STATE_FINISH),
+                createSampleOrder(2, OrderService.STATE_REJECT));
+        when(orderDao.findArchivable(anyCollection(), any(), eq(2))).thenReturn(batch);
+        doThrow(new DataAccessResourceFailureException("lock wait timeout"))
+                .when(orderDao).deleteAllInBatch(batch);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> job.run());
+
+        InOrder inOrder = inOrder(transactionManager, orderArchiveDao, orderDao);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(orderArchiveDao).saveAll(any());
+        inOrder.verify(orderDao).deleteAllInBatch(batch);
+        inOrder.verify(transactionManager).rollback(status);
+        verify(transactionManager, never()).commit(any());
+        verify(orderDao, times(1)).findArchivable(anyCollection(), any(), anyInt());
+        assertEquals(0, job.getLastRunArchived());
+    }
+}
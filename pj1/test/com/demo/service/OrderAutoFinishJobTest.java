@@ -0,0 +1,175 @@
+package com.demo.service;
+
+import com.demo.dao.OrderDao;
+import com.demo.service.impl.OrderAutoFinishJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderAutoFinishJobTest {
+
+    @Mock
+    private OrderDao orderDao;
+
+    @Mock
+    private ReportService reportService;
+
+    @InjectMocks
+    private OrderAutoFinishJob job;
+
+    @BeforeEach
+    void setUp() {
+        job.setBatchSize(2);
+        job.setMaxBatches(10);
+    }
+
+    /**
+     * TC:1.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：存在已过结束时间的已通过订单，数量不足一批
+     * 预期：一次集合更新为已完成，记录日统计与本次处理数
+     */
+    @Test
+    void testRun_singleBatch() {
+        when(orderDao.findElapsedOrderIDs(eq(OrderService.STATE_WAIT), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1));
+        when(orderDao.lockOrderIDsByState(List.of(1), OrderService.STATE_WAIT)).thenReturn(List.of(1));
+        when(orderDao.updateStateByIDs(OrderService.STATE_FINISH, OrderService.STATE_WAIT, List.of(1))).thenReturn(1);
+
+        int processed = job.run();
+
+        assertEquals(1, processed);
+        assertEquals(1, job.getLastRunProcessed());
+        assertEquals(1, job.getTotalProcessed());
+        verify(orderDao, times(1)).findElapsedOrderIDs(anyInt(), any(), any());
+        verify(reportService).recordTransitions(List.of(1), OrderService.STATE_WAIT, OrderService.STATE_FINISH);
+    }
+
+    /**
+     * TC:1.1
+     * 类型：白盒测试-循环覆盖
+     * 描述：待完成订单多于一批
+     * 预期：按批大小分批查询与更新，直到某批不满
+     */
+    @Test
+    void testRun_multipleBatches() {
+        when(orderDao.findElapsedOrderIDs(eq(OrderService.STATE_WAIT), any(LocalDateTime.class),
+                argThat(p -> p.getPageSize() == 2)))
+                .thenReturn(List.of(1, 2), List.of(3, 4), List.of(5));
+        when(orderDao.lockOrderIDsByState(anyList(), eq(OrderService.STATE_WAIT)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderDao.updateStateByIDs(eq(OrderService.STATE_FINISH), eq(OrderService.STATE_WAIT), anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(2)).size());
+
+        int processed = job.run();
+
+        assertEquals(5, processed);
+        InOrder inOrder = inOrder(orderDao);
+        inOrder.verify(orderDao).updateStateByIDs(OrderService.STATE_FINISH, OrderService.STATE_WAIT, List.of(1, 2));
+        inOrder.verify(orderDao).updateStateByIDs(OrderService.STATE_FINISH, OrderService.STATE_WAIT, List.of(3, 4));
+        inOrder.verify(orderDao).updateStateByIDs(OrderService.STATE_FINISH, OrderService.STATE_WAIT, List.of(5));
+        verify(orderDao, times(3)).findElapsedOrderIDs(anyInt(), any(), any());
+    }
+
+    /**
+     * TC:1.2
+     * 类型：黑盒测试-边界值
+     * 描述：没有已过结束时间的订单
+     * 预期：不执行更新，本次处理数为0
+     */
+    @Test
+    void testRun_nothingElapsed() {
+        when(orderDao.findElapsedOrderIDs(anyInt(), any(), any())).thenReturn(List.of());
+
+        assertEquals(0, job.run());
+
+        assertEquals(0, job.getLastRunProcessed());
+        verify(orderDao, never()).updateStateByIDs(anyInt(), anyInt(), any());
+        verifyNoInteractions(reportService);
+    }
+
+    /**
+     * TC:1.3
+     * 类型：黑盒测试-边界值
+     * 描述：积压超过单次运行的批数上限
+     * 预期：本次只处理maxBatches批，剩余留给下次运行
+     */
+    @Test
+    void testRun_boundedByMaxBatches() {
+        job.setMaxBatches(2);
+        when(orderDao.findElapsedOrderIDs(anyInt(), any(), any())).thenReturn(List.of(1, 2), List.of(3, 4));
+        when(orderDao.lockOrderIDsByState(anyList(), eq(OrderService.STATE_WAIT)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderDao.updateStateByIDs(eq(OrderService.STATE_FINISH), eq(OrderService.STATE_WAIT), anyList()))
+                .thenReturn(2);
+
+        assertEquals(4, job.run());
+
+        verify(orderDao, times(2)).findElapsedOrderIDs(anyInt(), any(), any());
+    }
+
+    /**
+     * TC:1.4
+     * 类型：白盒测试-条件覆盖
+     * 描述：查询后部分订单已被管理员手动完成，加锁时只锁到仍处于已通过状态的订单
+     * 预期：处理数与日统计以锁定的订单为准，并跨运行累计
+     */
+    @Test
+    void testRun_countsLockedRows() {
+        when(orderDao.findElapsedOrderIDs(anyInt(), any(), any())).thenReturn(List.of(1, 2), List.of(), List.of(3));
+        when(orderDao.lockOrderIDsByState(List.of(1, 2), OrderService.STATE_WAIT)).thenReturn(List.of(2));
+        when(orderDao.lockOrderIDsByState(List.of(3), OrderService.STATE_WAIT)).thenReturn(List.of(3));
+        when(orderDao.updateStateByIDs(eq(OrderService.STATE_FINISH), eq(OrderService.STATE_WAIT), anyList()))
+                .thenReturn(1);
+
+        assertEquals(1, job.run());
+        verify(orderDao).updateStateByIDs(OrderService.STATE_FINISH, OrderService.STATE_WAIT, List.of(2));
+        verify(reportService).recordTransitions(List.of(2), OrderService.STATE_WAIT, OrderService.STATE_FINISH);
+        assertEquals(1, job.run());
+
+        assertEquals(1, job.getLastRunProcessed());
+        assertEquals(2, job.getTotalProcessed());
+        verify(reportService).recordTransitions(List.of(3), OrderService.STATE_WAIT, OrderService.STATE_FINISH);
+    }
+
+    /**
+     * TC:1.7
+     * 类型：白盒测试-条件覆盖
+     * 描述：查询后订单全部已被管理员手动完成，加锁时不再处于已通过状态
+     * 预期：不执行更新，不记录日统计
+     */
+    @Test
+    void testRun_finishedBeforeLock() {
+        when(orderDao.findElapsedOrderIDs(anyInt(), any(), any())).thenReturn(List.of(1));
+        when(orderDao.lockOrderIDsByState(List.of(1), OrderService.STATE_WAIT)).thenReturn(List.of());
+
+        assertEquals(0, job.run());
+
+        verify(orderDao, never()).updateStateByIDs(anyInt(), anyInt(), any());
+        verifyNoInteractions(reportService);
+    }
+
+    /**
+     * TC:1.5
+     * 类型：黑盒测试-无效等价类
+     * 描述：批大小配置为非正数
+     * 预期：抛出异常
+     */
+    @Test
+    void testSetBatchSize_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> job.setBatchSize(0));
+    }
+}
@@ -0,0 +1,110 @@
+package com.demo.service;
+
+import com.demo.entity.vo.OrderVo;
+import com.demo.service.impl.OrderCsvWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderCsvWriterTest {
+
+    private StringWriter out;
+
+    private OrderCsvWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        out = new StringWriter();
+        writer = new OrderCsvWriter(out);
+    }
+
+    /**
+     * 创建样例订单视图用以测试
+     * @return 样例订单视图
+     */
+    private OrderVo createSampleOrderVo(String venueName) {
+        return new OrderVo(1, "user", 3, venueName, OrderService.STATE_WAIT, LocalDateTime.of(2026, 1, 1, 9, 0),
+                LocalDateTime.of(2026, 1, 2, 10, 0), 2, 200);
+    }
+
+    private String[] lines() {
+        return out.toString().split("\r?\n");
+    }
+
+    /**
+     * TC:1.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：写出表头与一条普通订单
+     * 预期：每个订单一行，列顺序与表头一致
+     */
+    @Test
+    void testWrite_plainRow() throws IOException {
+        writer.writeHeader();
+        writer.write(createSampleOrderVo("Test Venue"));
+        writer.flush();
+
+        assertEquals("orderID,venueName,userID,startTime,hours,total,state", lines()[0]);
+        assertEquals("1,Test Venue,user,2026-01-02 10:00:00,2,200.0,2", lines()[1]);
+    }
+
+    /**
+     * TC:1.1
+     * 类型：黑盒测试-边界值
+     * 描述：场馆名包含逗号
+     * 预期：该字段被双引号包围，列数不变
+     */
+    @Test
+    void testWrite_comma() throws IOException {
+        writer.write(createSampleOrderVo("Court A, North"));
+        writer.flush();
+
+        assertEquals("1,\"Court A, North\",user,2026-01-02 10:00:00,2,200.0,2", lines()[0]);
+    }
+
+    /**
+     * TC:1.2
+     * 类型：黑盒测试-边界值
+     * 描述：场馆名包含双引号
+     * 预期：字段被双引号包围，内部双引号写成两个双引号
+     */
+    @Test
+    void testWrite_quote() throws IOException {
+        writer.write(createSampleOrderVo("The \"Big\" Court"));
+        writer.flush();
+
+        assertEquals("1,\"The \"\"Big\"\" Court\",user,2026-01-02 10:00:00,2,200.0,2", lines()[0]);
+    }
+
+    /**
+     * TC:1.3
+     * 类型：黑盒测试-边界值
+     * 描述：场馆名包含换行
+     * 预期：字段被双引号包围，换行保留在字段内
+     */
+    @Test
+    void testWrite_newline() throws IOException {
+        writer.write(createSampleOrderVo("Court\nB"));
+        writer.flush();
+
+        assertTrue(out.toString().startsWith("1,\"Court\nB\",user,"));
+    }
+
+    /**
+     * TC:1.4
+     * 类型：黑盒测试-无效等价类
+     * 描述：以公式字符开头的场馆名
+     * 预期：前置单引号，防止在表格软件中被当作公式执行
+     */
+    @Test
+    void testWrite_formulaPrefix() throws IOException {
+        writer.write(createSampleOrderVo("=SUM(A1:A9)"));
+        writer.flush();
+
+        assertEquals("1,'=SUM(A1:A9),user,2026-01-02 10:00:00,2,200.0,2", lines()[0]);
+    }
+}
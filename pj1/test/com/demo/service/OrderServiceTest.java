@@ -1,28 +1,57 @@
 package com.demo.pj1.demo.service;
 
+import com.demo.dao.OrderArchiveDao;
 import com.demo.dao.OrderDao;
 import com.demo.dao.VenueDao;
 import com.demo.entity.Order;
+import com.demo.entity.OrderArchive;
 import com.demo.entity.Venue;
 import com.demo.service.OrderService;
+import com.demo.service.ReportService;
 import com.demo.service.impl.OrderServiceImpl;
+import com.demo.service.impl.SlotFreedEvent;
+import com.demo.service.impl.VenueDayLocks;
+import com.demo.service.impl.VenueSlotIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -92,9 +121,29 @@ public class OrderServiceTest {
     @Mock
     private VenueDao venueDao;
 
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OrderArchiveDao orderArchiveDao;
+
+    @Spy
+    private VenueSlotIndex slotIndex = new VenueSlotIndex();
+
+    @Spy
+    private VenueDayLocks dayLocks = new VenueDayLocks();
+
+    @Mock
+    private Clock clock;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(clock.instant()).thenAnswer(invocation -> Instant.now());
+        when(clock.getZone()).thenReturn(ZoneId.systemDefault());
     }
 
     // 测试用例设计 - findById方法
@@ -219,74 +268,129 @@ public class OrderServiceTest {
     }
 
     // 测试用例分组1: confirmOrder方法
-    // TC5.1: 确认存在的订单
+    // TC5.1: 确认存在的订单 - 单条条件更新, 不先读取订单
     @Test
     void testConfirmOrder_ExistingOrder() {
-        Order order = new Order();
-        order.setOrderID(1);
-        when(orderDao.findByOrderID(1)).thenReturn(order);
+        when(orderDao.updateStateFrom(eq(OrderService.STATE_WAIT), eq(1),
+            statesIn(OrderService.STATE_NO_AUDIT))).thenReturn(1);
 
         orderService.confirmOrder(1);
 
-        verify(orderDao).updateState(OrderService.STATE_WAIT, 1);
+        verify(orderDao).updateStateFrom(eq(OrderService.STATE_WAIT), eq(1), statesIn(OrderService.STATE_NO_AUDIT));
+        verify(orderDao, never()).findByOrderID(anyInt());
+        verify(orderDao, never()).existsById(anyInt());
     }
 
     // TC5.2: 确认不存在的订单
     @Test
     void testConfirmOrder_NonExistingOrder() {
-        when(orderDao.findByOrderID(999)).thenReturn(null);
+        when(orderDao.updateStateFrom(anyInt(), eq(999), any())).thenReturn(0);
+        when(orderDao.existsById(999)).thenReturn(false);
         
         Exception exception = assertThrows(RuntimeException.class, () -> 
             orderService.confirmOrder(999));
         assertEquals("订单不存在", exception.getMessage());
     }
 
+    // TC5.3: 确认已被处理的订单
+    @Test
+    void testConfirmOrder_IllegalTransition() {
+        when(orderDao.updateStateFrom(anyInt(), eq(1), any())).thenReturn(0);
+        when(orderDao.existsById(1)).thenReturn(true);
+
+        Exception exception = assertThrows(RuntimeException.class, () ->
+            orderService.confirmOrder(1));
+        assertEquals("订单状态已改变", exception.getMessage());
+    }
+
     // 测试用例分组2: finishOrder方法
-    // TC6.1: 完成存在的订单
+    // TC6.1: 完成已通过的订单 - 按原状态逐个条件更新, 命中后即可确定原状态
     @Test
     void testFinishOrder_ExistingOrder() {
-        Order order = new Order();
-        order.setOrderID(1);
-        when(orderDao.findByOrderID(1)).thenReturn(order);
+        when(orderDao.updateStateFrom(eq(OrderService.STATE_FINISH), eq(1),
+            statesIn(OrderService.STATE_WAIT))).thenReturn(1);
+
+        orderService.finishOrder(1);
+
+        verify(orderDao).updateStateFrom(eq(OrderService.STATE_FINISH), eq(1), statesIn(OrderService.STATE_WAIT));
+        verify(orderDao, never()).updateStateFrom(eq(OrderService.STATE_FINISH), eq(1),
+            statesIn(OrderService.STATE_NO_AUDIT));
+        verify(orderDao, never()).findByOrderID(anyInt());
+        verify(reportService).recordTransition(1, OrderService.STATE_WAIT, OrderService.STATE_FINISH);
+    }
+
+    // TC6.4: 完成待审核的订单 - 已通过条件未命中后再按待审核条件更新
+    @Test
+    void testFinishOrder_FromNoAudit() {
+        when(orderDao.updateStateFrom(eq(OrderService.STATE_FINISH), eq(1),
+            statesIn(OrderService.STATE_WAIT))).thenReturn(0);
+        when(orderDao.updateStateFrom(eq(OrderService.STATE_FINISH), eq(1),
+            statesIn(OrderService.STATE_NO_AUDIT))).thenReturn(1);
 
         orderService.finishOrder(1);
 
-        verify(orderDao).updateState(OrderService.STATE_FINISH, 1);
+        verify(reportService).recordTransition(1, OrderService.STATE_NO_AUDIT, OrderService.STATE_FINISH);
+        verify(orderDao, never()).existsById(anyInt());
     }
 
     // TC6.2: 完成不存在的订单
     @Test
     void testFinishOrder_NonExistingOrder() {
-        when(orderDao.findByOrderID(999)).thenReturn(null);
+        when(orderDao.updateStateFrom(anyInt(), eq(999), any())).thenReturn(0);
+        when(orderDao.existsById(999)).thenReturn(false);
         
         Exception exception = assertThrows(RuntimeException.class, () -> 
             orderService.finishOrder(999));
         assertEquals("订单不存在", exception.getMessage());
     }
 
+    // TC6.3: 完成已被拒绝的订单
+    @Test
+    void testFinishOrder_IllegalTransition() {
+        when(orderDao.updateStateFrom(anyInt(), eq(1), any())).thenReturn(0);
+        when(orderDao.existsById(1)).thenReturn(true);
+
+        Exception exception = assertThrows(RuntimeException.class, () ->
+            orderService.finishOrder(1));
+        assertEquals("订单状态已改变", exception.getMessage());
+    }
+
     // 测试用例分组3: rejectOrder方法
     // TC7.1: 拒绝存在的订单
     @Test
     void testRejectOrder_ExistingOrder() {
-        Order order = new Order();
-        order.setOrderID(1);
-        when(orderDao.findByOrderID(1)).thenReturn(order);
+        when(orderDao.updateStateFrom(eq(OrderService.STATE_REJECT), eq(1),
+            statesIn(OrderService.STATE_NO_AUDIT))).thenReturn(1);
 
         orderService.rejectOrder(1);
 
-        verify(orderDao).updateState(OrderService.STATE_REJECT, 1);
+        verify(orderDao).updateStateFrom(eq(OrderService.STATE_REJECT), eq(1), statesIn(OrderService.STATE_NO_AUDIT));
+        verify(orderDao, never()).findByOrderID(anyInt());
     }
 
     // TC7.2: 拒绝不存在的订单
     @Test
     void testRejectOrder_NonExistingOrder() {
-        when(orderDao.findByOrderID(999)).thenReturn(null);
+        when(orderDao.updateStateFrom(anyInt(), eq(999), any())).thenReturn(0);
+        when(orderDao.existsById(999)).thenReturn(false);
         
         Exception exception = assertThrows(RuntimeException.class, () -> 
             orderService.rejectOrder(999));
         assertEquals("订单不存在", exception.getMessage());
     }
 
+    // TC7.3: 拒绝已通过的订单 - 两个管理员先后操作
+    @Test
+    void testRejectOrder_IllegalTransition() {
+        when(orderDao.updateStateFrom(anyInt(), eq(1), any())).thenReturn(0);
+        when(orderDao.existsById(1)).thenReturn(true);
+
+        Exception exception = assertThrows(RuntimeException.class, () ->
+            orderService.rejectOrder(1));
+        assertEquals("订单状态已改变", exception.getMessage());
+        verify(orderDao, never()).updateState(anyInt(), anyInt());
+    }
+
     // 测试用例分组4: findNoAuditOrder方法
     // TC8.1: 查询待审核订单 - 有结果
     @Test
@@ -338,4 +442,1150 @@ public class OrderServiceTest {
 
         assertTrue(result.isEmpty());
     }
+
+    // TC9.3: 分页查询已审核订单
+    @Test
+    void testFindAuditOrder_Paged() {
+        Pageable pageable = PageRequest.of(1, 10);
+        Page<Order> expectedPage = new PageImpl<>(Arrays.asList(new Order(), new Order()), pageable, 12);
+        when(orderDao.findAudit(OrderService.STATE_WAIT, OrderService.STATE_FINISH, pageable))
+            .thenReturn(expectedPage);
+
+        Page<Order> result = orderService.findAuditOrder(pageable);
+
+        assertEquals(2, result.getNumberOfElements());
+        assertEquals(12, result.getTotalElements());
+        verify(orderDao, never()).findAudit(anyInt(), anyInt());
+    }
+
+    // TC9.4: 流式遍历已审核订单 - 遍历结束后关闭流
+    @Test
+    void testForEachAuditOrder_ClosesStream() {
+        AtomicInteger closed = new AtomicInteger();
+        Stream<Order> stream = Stream.of(new Order(), new Order(), new Order()).onClose(closed::incrementAndGet);
+        when(orderDao.streamAudit(OrderService.STATE_WAIT, OrderService.STATE_FINISH)).thenReturn(stream);
+
+        List<Order> consumed = new ArrayList<>();
+        orderService.forEachAuditOrder(consumed::add);
+
+        assertEquals(3, consumed.size());
+        assertEquals(1, closed.get());
+        verify(orderDao, never()).findAudit(anyInt(), anyInt());
+    }
+
+    // TC9.5: 流式遍历已审核订单 - 处理出错时同样关闭流
+    @Test
+    void testForEachAuditOrder_ClosesStreamOnError() {
+        AtomicInteger closed = new AtomicInteger();
+        Stream<Order> stream = Stream.of(new Order(), new Order()).onClose(closed::incrementAndGet);
+        when(orderDao.streamAudit(OrderService.STATE_WAIT, OrderService.STATE_FINISH)).thenReturn(stream);
+
+        assertThrows(IllegalStateException.class, () -> orderService.forEachAuditOrder(order -> {
+            throw new IllegalStateException("export failed");
+        }));
+
+        assertEquals(1, closed.get());
+    }
+
+    // TC9.6: 流式遍历已审核订单 - 逐行取出交给调用方, 不先收集成列表, 内存占用与订单总数无关
+    @Test
+    void testForEachAuditOrder_ConsumesLazily() {
+        AtomicInteger fetched = new AtomicInteger();
+        Stream<Order> stream = Stream.iterate(1, id -> id + 1).limit(100_000)
+            .map(id -> createOrder(id, 1, LocalDateTime.now(), 2, OrderService.STATE_FINISH))
+            .peek(order -> fetched.incrementAndGet());
+        when(orderDao.streamAudit(OrderService.STATE_WAIT, OrderService.STATE_FINISH)).thenReturn(stream);
+
+        assertThrows(IllegalStateException.class, () -> orderService.forEachAuditOrder(order -> {
+            if (order.getOrderID() == 3) {
+                throw new IllegalStateException("client disconnected");
+            }
+        }));
+
+        assertEquals(3, fetched.get());
+    }
+
+    // 测试用例分组6: 场馆时段索引
+    // TC10.1: 启动时根据未来订单重建索引, 已拒绝订单不占用时段
+    @Test
+    void testRebuildSlotIndex_SkipsRejectedOrders() {
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atTime(10, 0);
+        Order active = createOrder(1, 1, tomorrow, 2, OrderService.STATE_WAIT);
+        Order rejected = createOrder(2, 1, tomorrow.plusHours(4), 2, OrderService.STATE_REJECT);
+        when(orderDao.findByStartTimeIsAfterAndStateNot(any(LocalDateTime.class), eq(OrderService.STATE_REJECT)))
+            .thenReturn(Arrays.asList(active, rejected));
+
+        orderService.rebuildSlotIndex();
+
+        assertFalse(slotIndex.isFree(1, tomorrow, 2));
+        assertFalse(slotIndex.isFree(1, tomorrow.plusHours(1), 1));
+        assertTrue(slotIndex.isFree(1, tomorrow.plusHours(4), 2));
+        assertTrue(slotIndex.isFree(2, tomorrow, 2));
+    }
+
+    // TC10.2: 提交订单先查索引, 时段冲突时不访问数据库也不保存
+    @Test
+    void testSubmit_SlotAlreadyBooked() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        slotIndex.rebuild(Collections.singletonList(createOrder(1, 1, start, 2, OrderService.STATE_NO_AUDIT)));
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+
+        Exception exception = assertThrows(RuntimeException.class, () ->
+            orderService.submit("testVenue", start.plusHours(1), 2, "testUser"));
+
+        assertEquals("Time slot already booked", exception.getMessage());
+        verify(orderDao, never()).save(any());
+        verify(orderDao, never()).findByVenueIDAndStartTimeIsBetween(anyInt(), any(), any());
+    }
+
+    // TC10.3: 提交成功后时段被索引占用
+    @Test
+    void testSubmit_OccupiesSlot() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(14, 0);
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+
+        orderService.submit("testVenue", start, 2, "testUser");
+
+        assertFalse(slotIndex.isFree(1, start, 1));
+        assertFalse(slotIndex.isFree(1, start.plusHours(1), 1));
+        assertTrue(slotIndex.isFree(1, start.plusHours(2), 1));
+    }
+
+    // TC10.4: 修改订单时释放旧时段并占用新时段, 不与自身冲突
+    @Test
+    void testUpdateOrder_MovesSlot() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        Order order = createOrder(1, 1, start, 2, OrderService.STATE_NO_AUDIT);
+        slotIndex.rebuild(Collections.singletonList(order));
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+        when(orderDao.findByOrderID(1)).thenReturn(order);
+
+        orderService.updateOrder(1, "testVenue", start.plusHours(1), 3, "testUser");
+
+        assertTrue(slotIndex.isFree(1, start, 1));
+        assertFalse(slotIndex.isFree(1, start.plusHours(1), 3));
+        verify(orderDao).save(order);
+    }
+
+    // TC10.5: 拒绝与删除订单后释放时段
+    @Test
+    void testRejectAndDelete_ReleaseSlot() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        Order first = createOrder(1, 1, start, 2, OrderService.STATE_NO_AUDIT);
+        Order second = createOrder(2, 1, start.plusHours(3), 2, OrderService.STATE_NO_AUDIT);
+        slotIndex.rebuild(Arrays.asList(first, second));
+        when(orderDao.updateStateFrom(eq(OrderService.STATE_REJECT), eq(1), any())).thenReturn(1);
+
+        orderService.rejectOrder(1);
+        orderService.delOrder(2);
+
+        assertTrue(slotIndex.isFree(1, start, 2));
+        assertTrue(slotIndex.isFree(1, start.plusHours(3), 2));
+        verify(orderDao).deleteById(2);
+    }
+
+    // TC10.6: 查询某天订单由索引返回, 不做范围查询
+    @Test
+    void testFindDayOrder_ServedFromIndex() {
+        LocalDate day = LocalDate.now().plusDays(1);
+        Order order = createOrder(1, 1, day.atTime(10, 0), 2, OrderService.STATE_WAIT);
+        Order otherDay = createOrder(2, 1, day.plusDays(1).atTime(10, 0), 2, OrderService.STATE_WAIT);
+        slotIndex.rebuild(Arrays.asList(order, otherDay));
+
+        List<Order> result = orderService.findDayOrder(1, day);
+
+        assertEquals(1, result.size());
+        assertEquals(1, result.get(0).getOrderID());
+        assertEquals(0b11 << 10, slotIndex.dayMask(1, day));
+        verify(orderDao, never()).findByVenueIDAndStartTimeIsBetween(anyInt(), any(), any());
+    }
+
+    // TC10.7: 索引范围之前的日期回退到数据库范围查询
+    @Test
+    void testFindDayOrder_PastDateFallsBackToDao() {
+        LocalDate day = LocalDate.now().minusDays(7);
+        when(orderDao.findByVenueIDAndStartTimeIsBetween(1, day.atStartOfDay(), day.plusDays(1).atStartOfDay()))
+            .thenReturn(Arrays.asList(new Order(), new Order()));
+
+        List<Order> result = orderService.findDayOrder(1, day);
+
+        assertEquals(2, result.size());
+    }
+
+    // TC10.8: 事务内提交订单 - 保存后立即在索引中预占时段, 并发的提交在事务提交前就会冲突, 提交后保持占用
+    @Test
+    void testSubmit_ReservesSlotBeforeCommit() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(14, 0);
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+
+        inTransaction(true, () -> {
+            orderService.submit("testVenue", start, 2, "testUser");
+            assertFalse(slotIndex.isFree(1, start, 2));
+            Exception exception = assertThrows(RuntimeException.class, () ->
+                orderService.submit("testVenue", start.plusHours(1), 1, "otherUser"));
+            assertEquals("Time slot already booked", exception.getMessage());
+        });
+
+        assertFalse(slotIndex.isFree(1, start, 2));
+    }
+
+    // TC10.9: 提交订单的事务回滚 - 预占在回滚后撤销, 时段重新空闲, 可以被再次预订
+    @Test
+    void testSubmit_RolledBackLeavesSlotFree() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(14, 0);
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+
+        inTransaction(false, () -> orderService.submit("testVenue", start, 2, "testUser"));
+
+        assertTrue(slotIndex.isFree(1, start, 2));
+        assertDoesNotThrow(() -> orderService.submit("testVenue", start, 2, "otherUser"));
+    }
+
+    // TC10.10: 每周重复预订批量保存失败 - 异常抛出, 任何场次都不占用索引
+    @Test
+    void testSubmitWeekly_SaveAllFailsLeavesIndex() {
+        LocalDateTime first = LocalDate.now().plusDays(1).atTime(19, 0);
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+        when(orderDao.saveAll(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+            inTransaction(true, () -> orderService.submitWeekly("testVenue", first, 2, 4, "club")));
+
+        for (int week = 0; week < 4; week++) {
+            assertTrue(slotIndex.isFree(1, first.plusWeeks(week), 2));
+        }
+    }
+
+    // TC10.11: 拒绝订单的事务回滚 - 订单仍占用时段, 索引不提前释放
+    @Test
+    void testRejectOrder_RolledBackKeepsSlot() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        slotIndex.rebuild(Collections.singletonList(createOrder(1, 1, start, 2, OrderService.STATE_NO_AUDIT)));
+        when(orderDao.findByOrderID(1)).thenReturn(createOrder(1, 1, start, 2, OrderService.STATE_NO_AUDIT));
+        when(orderDao.updateStateFrom(eq(OrderService.STATE_REJECT), eq(1), any())).thenReturn(1);
+
+        inTransaction(false, () -> orderService.rejectOrder(1));
+
+        assertFalse(slotIndex.isFree(1, start, 2));
+    }
+
+    // TC10.12: 拒绝订单的事务提交 - 事务内时段仍被占用, 提交后才释放
+    @Test
+    void testRejectOrder_ReleasesSlotAfterCommit() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        slotIndex.rebuild(Collections.singletonList(createOrder(1, 1, start, 2, OrderService.STATE_NO_AUDIT)));
+        when(orderDao.findByOrderID(1)).thenReturn(createOrder(1, 1, start, 2, OrderService.STATE_NO_AUDIT));
+        when(orderDao.updateStateFrom(eq(OrderService.STATE_REJECT), eq(1), any())).thenReturn(1);
+
+        inTransaction(true, () -> {
+            orderService.rejectOrder(1);
+            assertFalse(slotIndex.isFree(1, start, 2));
+        });
+
+        assertTrue(slotIndex.isFree(1, start, 2));
+    }
+
+    // 模拟事务边界: 执行期间注册的同步回调在提交后收到afterCommit, 回滚或抛出异常时只收到afterCompletion
+    private void inTransaction(boolean commit, Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                complete(false);
+                throw e;
+            }
+            complete(commit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void complete(boolean commit) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (commit) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        int status = commit ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK;
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private Order createOrder(int orderId, int venueId, LocalDateTime startTime, int hours, int state) {
+        Order order = new Order();
+        order.setOrderID(orderId);
+        order.setUserID("testUser");
+        order.setVenueID(venueId);
+        order.setStartTime(startTime);
+        order.setHours(hours);
+        order.setState(state);
+        return order;
+    }
+
+    private OrderArchive createArchive(int orderId) {
+        OrderArchive archive = new OrderArchive();
+        archive.setOrderID(orderId);
+        archive.setUserID("user1");
+        archive.setState(OrderService.STATE_FINISH);
+        return archive;
+    }
+
+    private static Collection<Integer> statesIn(Integer... states) {
+        return argThat(actual -> actual != null && actual.size() == states.length
+            && actual.containsAll(Arrays.asList(states)));
+    }
+
+    // 测试用例分组7: 并发提交
+    // TC11.1: 同一场馆同一时段并发提交, 只有一个成功
+    @Test
+    void testSubmit_ConcurrentSameSlot() throws Exception {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger conflict = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    ready.await();
+                    orderService.submit("testVenue", start, 2, "testUser");
+                    success.incrementAndGet();
+                } catch (RuntimeException e) {
+                    assertEquals("Time slot already booked", e.getMessage());
+                    conflict.incrementAndGet();
+                } catch (InterruptedException e) {
+                    fail("Concurrent submit test interrupted");
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        ready.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, success.get());
+        assertEquals(49, conflict.get());
+        verify(orderDao, times(1)).save(any(Order.class));
+    }
+
+    // TC11.2: 不同场馆同一时段并发提交, 全部成功
+    @Test
+    void testSubmit_ConcurrentDifferentVenues() throws Exception {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        int venueCount = 50;
+        for (int i = 1; i <= venueCount; i++) {
+            Venue venue = new Venue();
+            venue.setVenueID(i);
+            venue.setPrice(100);
+            when(venueDao.findByVenueName("venue" + i)).thenReturn(venue);
+        }
+
+        AtomicInteger success = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 1; i <= venueCount; i++) {
+            String venueName = "venue" + i;
+            threads.add(new Thread(() -> {
+                try {
+                    ready.await();
+                    orderService.submit(venueName, start, 2, "testUser");
+                    success.incrementAndGet();
+                } catch (Exception e) {
+                    fail("Concurrent submit test failed: " + e.getMessage());
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        ready.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(venueCount, success.get());
+        verify(orderDao, times(venueCount)).save(any(Order.class));
+    }
+
+    // TC11.3: 同一场馆相邻但不重叠的时段并发提交, 全部成功
+    @Test
+    void testSubmit_ConcurrentAdjacentSlots() throws Exception {
+        LocalDate day = LocalDate.now().plusDays(1);
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+
+        AtomicInteger success = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int hour = 8; hour < 20; hour++) {
+            LocalDateTime start = day.atTime(hour, 0);
+            threads.add(new Thread(() -> {
+                try {
+                    ready.await();
+                    orderService.submit("testVenue", start, 1, "testUser");
+                    success.incrementAndGet();
+                } catch (Exception e) {
+                    fail("Concurrent submit test failed: " + e.getMessage());
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        ready.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(12, success.get());
+        assertEquals(0xFFF << 8, slotIndex.dayMask(1, day));
+    }
+
+    // TC11.4: 跨零点的预订 - 按日期升序获取两天的锁, 并检测次日的冲突
+    @Test
+    void testSubmit_CrossMidnightLocksBothDays() {
+        LocalDate day = LocalDate.now().plusDays(1);
+        slotIndex.rebuild(Collections.singletonList(
+            createOrder(1, 1, day.plusDays(1).atTime(0, 0), 1, OrderService.STATE_WAIT)));
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+
+        Exception exception = assertThrows(RuntimeException.class, () ->
+            orderService.submit("testVenue", day.atTime(23, 0), 2, "testUser"));
+
+        assertEquals("Time slot already booked", exception.getMessage());
+        InOrder inOrder = inOrder(dayLocks);
+        inOrder.verify(dayLocks).acquire(1, day);
+        inOrder.verify(dayLocks).acquire(1, day.plusDays(1));
+        assertFalse(dayLocks.isLocked(1, day));
+        assertFalse(dayLocks.isLocked(1, day.plusDays(1)));
+        verify(orderDao, never()).save(any(Order.class));
+    }
+
+    // TC11.5: 每周重复预订 - 一次性按日期升序获取全部场次的锁, 完成后全部释放
+    @Test
+    void testSubmitWeekly_LocksAllStripesInOrder() {
+        LocalDate day = LocalDate.now().plusDays(1);
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+
+        orderService.submitWeekly("testVenue", day.atTime(23, 0), 2, 3, "club");
+
+        InOrder inOrder = inOrder(dayLocks, orderDao);
+        for (int week = 0; week < 3; week++) {
+            inOrder.verify(dayLocks).acquire(1, day.plusWeeks(week));
+            inOrder.verify(dayLocks).acquire(1, day.plusWeeks(week).plusDays(1));
+        }
+        inOrder.verify(orderDao).saveAll(any());
+        for (int week = 0; week < 3; week++) {
+            assertFalse(dayLocks.isLocked(1, day.plusWeeks(week)));
+            assertFalse(dayLocks.isLocked(1, day.plusWeeks(week).plusDays(1)));
+        }
+    }
+
+    // TC11.6: 跨零点预订与每周预订交错并发 - 固定的加锁顺序不产生死锁
+    @Test
+    void testSubmit_CrossMidnightAndWeeklyNoDeadlock() throws Throwable {
+        LocalDate day = LocalDate.now().plusDays(1);
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(20);
+        try {
+            for (int i = 0; i < 20; i++) {
+                int offset = i;
+                pool.submit(() -> {
+                    try {
+                        ready.await();
+                        if (offset % 2 == 0) {
+                            orderService.submit("testVenue", day.plusDays(offset % 7).atTime(23, 0), 2, "testUser");
+                        } else {
+                            orderService.submitWeekly("testVenue", day.plusDays(offset % 7).atTime(22, 0), 3, 4, "club");
+                        }
+                    } catch (RuntimeException e) {
+                        if (!"Time slot already booked".equals(e.getMessage())) {
+                            failures.add(e);
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                });
+            }
+
+            ready.countDown();
+            pool.shutdown();
+            // 死锁的线程无法结束, 超时即失败, finally中中断残留线程
+            assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS), "submit threads deadlocked");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (!failures.isEmpty()) {
+            Throwable first = failures.poll();
+            failures.forEach(first::addSuppressed);
+            throw first;
+        }
+    }
+
+    // 测试用例分组8: 游标分页
+    // TC12.1: 用户订单游标分页 - 从上一页最后一个订单ID之后查找
+    @Test
+    void testFindUserOrderAfter_Seek() {
+        List<Order> orders = Arrays.asList(createOrder(11, 1, LocalDateTime.now(), 2, OrderService.STATE_WAIT),
+            createOrder(12, 1, LocalDateTime.now(), 2, OrderService.STATE_WAIT));
+        when(orderDao.findByUserIDAndOrderIDGreaterThanOrderByOrderIDAsc("user1", 10, PageRequest.of(0, 2)))
+            .thenReturn(orders);
+
+        List<Order> result = orderService.findUserOrderAfter("user1", 10, 2);
+
+        assertEquals(2, result.size());
+        assertEquals(11, result.get(0).getOrderID());
+        verify(orderDao, never()).findAllByUserID(anyString(), any());
+    }
+
+    // TC12.2: 待审核订单游标分页 - 首页游标为0
+    @Test
+    void testFindNoAuditOrderAfter_FirstPage() {
+        when(orderDao.findByStateAndOrderIDGreaterThanOrderByOrderIDAsc(OrderService.STATE_NO_AUDIT, 0,
+            PageRequest.of(0, 10))).thenReturn(Collections.emptyList());
+
+        List<Order> result = orderService.findNoAuditOrderAfter(0, 10);
+
+        assertTrue(result.isEmpty());
+        verify(orderDao, never()).findAllByState(anyInt(), any());
+    }
+
+    // TC12.3: 游标分页 - 非法的每页数量
+    @ParameterizedTest
+    @CsvSource({"0", "-1", "101"})
+    void testFindUserOrderAfter_InvalidSize(int size) {
+        assertThrows(IllegalArgumentException.class, () ->
+            orderService.findUserOrderAfter("user1", 0, size));
+        verifyNoInteractions(orderDao);
+    }
+
+    // 测试用例分组9: Slice查询
+    // TC13.1: 查询用户订单Slice - 不执行计数查询
+    @Test
+    void testFindUserOrderSlice_NoCount() {
+        Pageable pageable = PageRequest.of(0, 5);
+        Slice<Order> expected = new SliceImpl<>(Arrays.asList(new Order(), new Order()), pageable, false);
+        when(orderDao.findSliceByUserID("user1", pageable)).thenReturn(expected);
+
+        Slice<Order> result = orderService.findUserOrderSlice("user1", pageable);
+
+        assertEquals(2, result.getNumberOfElements());
+        assertFalse(result.hasNext());
+        verify(orderDao, never()).findAllByUserID(anyString(), any());
+    }
+
+    // 测试用例分组10: 批量审核订单
+    // TC14.1: 批量通过 - 只有待审核订单被通过, 一次集合更新
+    @Test
+    void testConfirmOrders_OnlyNoAuditOrders() {
+        List<Integer> ids = Arrays.asList(1, 2, 3, 999);
+        when(orderDao.lockOrderIDsByState(ids, OrderService.STATE_NO_AUDIT)).thenReturn(Arrays.asList(1, 3));
+        when(orderDao.updateStateByIDs(OrderService.STATE_WAIT, OrderService.STATE_NO_AUDIT, Arrays.asList(1, 3)))
+            .thenReturn(2);
+
+        Map<Integer, Boolean> result = orderService.confirmOrders(ids);
+
+        assertEquals(4, result.size());
+        assertTrue(result.get(1));
+        assertFalse(result.get(2));
+        assertTrue(result.get(3));
+        assertFalse(result.get(999));
+        verify(orderDao, times(1)).updateStateByIDs(anyInt(), anyInt(), any());
+        verify(orderDao, never()).findByOrderID(anyInt());
+        verify(orderDao, never()).updateState(anyInt(), anyInt());
+    }
+
+    // TC14.2: 批量拒绝 - 被拒绝订单的时段被释放
+    @Test
+    void testRejectOrders_ReleasesSlots() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        slotIndex.rebuild(Arrays.asList(createOrder(1, 1, start, 2, OrderService.STATE_NO_AUDIT),
+            createOrder(2, 1, start.plusHours(2), 2, OrderService.STATE_WAIT)));
+        List<Integer> ids = Arrays.asList(1, 2);
+        when(orderDao.lockOrderIDsByState(ids, OrderService.STATE_NO_AUDIT)).thenReturn(Collections.singletonList(1));
+        when(orderDao.updateStateByIDs(OrderService.STATE_REJECT, OrderService.STATE_NO_AUDIT,
+            Collections.singletonList(1))).thenReturn(1);
+
+        Map<Integer, Boolean> result = orderService.rejectOrders(ids);
+
+        assertTrue(result.get(1));
+        assertFalse(result.get(2));
+        assertTrue(slotIndex.isFree(1, start, 2));
+        assertFalse(slotIndex.isFree(1, start.plusHours(2), 2));
+    }
+
+    // TC14.3: 批量通过 - 空列表不访问数据库
+    @Test
+    void testConfirmOrders_EmptyList() {
+        Map<Integer, Boolean> result = orderService.confirmOrders(Collections.emptyList());
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(orderDao);
+    }
+
+    // TC14.4: 批量通过 - 全部不是待审核状态时不执行更新
+    @Test
+    void testConfirmOrders_NoneEligible() {
+        List<Integer> ids = Arrays.asList(5, 6);
+        when(orderDao.lockOrderIDsByState(ids, OrderService.STATE_NO_AUDIT)).thenReturn(Collections.emptyList());
+
+        Map<Integer, Boolean> result = orderService.confirmOrders(ids);
+
+        assertFalse(result.get(5));
+        assertFalse(result.get(6));
+        verify(orderDao, never()).updateStateByIDs(anyInt(), anyInt(), any());
+    }
+
+    // TC14.5: 批量拒绝 - 先以悲观写锁锁定待审核订单, 锁定的行在提交前不会被其他事务修改,
+    // 因此按锁定结果报告并释放时段, 不再回读订单状态
+    @Test
+    void testRejectOrders_TrustsLockedRows() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        slotIndex.rebuild(Arrays.asList(createOrder(1, 1, start, 2, OrderService.STATE_NO_AUDIT),
+            createOrder(2, 1, start.plusHours(2), 2, OrderService.STATE_NO_AUDIT),
+            createOrder(3, 1, start.plusHours(4), 2, OrderService.STATE_WAIT)));
+        List<Integer> ids = Arrays.asList(1, 2, 3);
+        List<Integer> locked = Arrays.asList(1, 2);
+        when(orderDao.lockOrderIDsByState(ids, OrderService.STATE_NO_AUDIT)).thenReturn(locked);
+        when(orderDao.updateStateByIDs(OrderService.STATE_REJECT, OrderService.STATE_NO_AUDIT, locked)).thenReturn(2);
+
+        Map<Integer, Boolean> result = orderService.rejectOrders(ids);
+
+        assertTrue(result.get(1));
+        assertTrue(result.get(2));
+        assertFalse(result.get(3));
+        assertTrue(slotIndex.isFree(1, start, 4));
+        assertFalse(slotIndex.isFree(1, start.plusHours(4), 2));
+        InOrder inOrder = inOrder(orderDao, reportService);
+        inOrder.verify(orderDao).lockOrderIDsByState(ids, OrderService.STATE_NO_AUDIT);
+        inOrder.verify(orderDao).updateStateByIDs(OrderService.STATE_REJECT, OrderService.STATE_NO_AUDIT, locked);
+        inOrder.verify(reportService).recordTransitions(locked, OrderService.STATE_NO_AUDIT, OrderService.STATE_REJECT);
+        verify(orderDao, never()).findByOrderID(anyInt());
+    }
+
+    // 测试用例分组11: 场馆日统计增量维护
+    // TC15.1: 提交订单后记录到日统计
+    @Test
+    void testSubmit_RecordsDailyStat() {
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+
+        orderService.submit("testVenue", LocalDate.now().plusDays(1).atTime(10, 0), 2, "testUser");
+
+        verify(reportService).recordSubmit(argThat(order ->
+            order.getVenueID() == 1 && order.getHours() == 2 && order.getTotal() == 200.0));
+    }
+
+    // TC15.2: 条件更新成功后按明确的原状态与新状态移动统计, 同一事务内失败时一起回滚
+    @Test
+    void testStateTransitions_RecordDailyStat() {
+        when(orderDao.updateStateFrom(anyInt(), anyInt(), any())).thenReturn(1);
+
+        orderService.confirmOrder(1);
+        orderService.finishOrder(2);
+        orderService.rejectOrder(3);
+
+        InOrder inOrder = inOrder(reportService, orderDao);
+        inOrder.verify(orderDao).updateStateFrom(eq(OrderService.STATE_WAIT), eq(1), any());
+        inOrder.verify(reportService).recordTransition(1, OrderService.STATE_NO_AUDIT, OrderService.STATE_WAIT);
+        inOrder.verify(orderDao).updateStateFrom(eq(OrderService.STATE_FINISH), eq(2), any());
+        inOrder.verify(reportService).recordTransition(2, OrderService.STATE_WAIT, OrderService.STATE_FINISH);
+        inOrder.verify(orderDao).updateStateFrom(eq(OrderService.STATE_REJECT), eq(3), any());
+        inOrder.verify(reportService).recordTransition(3, OrderService.STATE_NO_AUDIT, OrderService.STATE_REJECT);
+    }
+
+    // TC15.7: 条件更新未命中(订单状态已改变)时不移动统计
+    @Test
+    void testStateTransition_NothingUpdatedLeavesStats() {
+        when(orderDao.updateStateFrom(anyInt(), eq(1), any())).thenReturn(0);
+        when(orderDao.existsById(1)).thenReturn(true);
+
+        assertThrows(RuntimeException.class, () -> orderService.confirmOrder(1));
+        assertThrows(RuntimeException.class, () -> orderService.finishOrder(1));
+        assertThrows(RuntimeException.class, () -> orderService.rejectOrder(1));
+
+        verify(reportService, never()).recordTransition(anyInt(), anyInt(), anyInt());
+    }
+
+    // TC15.3: 删除订单前从日统计中扣除
+    @Test
+    void testDelOrder_RecordsDailyStat() {
+        orderService.delOrder(5);
+
+        InOrder inOrder = inOrder(reportService, orderDao);
+        inOrder.verify(reportService).recordDelete(5);
+        inOrder.verify(orderDao).deleteById(5);
+    }
+
+    // TC15.4: 批量审核只对实际通过的订单移动统计
+    @Test
+    void testConfirmOrders_RecordsDailyStat() {
+        List<Integer> ids = Arrays.asList(1, 2);
+        when(orderDao.lockOrderIDsByState(ids, OrderService.STATE_NO_AUDIT)).thenReturn(Collections.singletonList(2));
+        when(orderDao.updateStateByIDs(OrderService.STATE_WAIT, OrderService.STATE_NO_AUDIT,
+            Collections.singletonList(2))).thenReturn(1);
+
+        orderService.confirmOrders(ids);
+
+        verify(reportService).recordTransitions(Collections.singletonList(2), OrderService.STATE_NO_AUDIT,
+            OrderService.STATE_WAIT);
+        verify(reportService, never()).recordTransition(anyInt(), anyInt(), anyInt());
+    }
+
+    // TC15.5: 修改订单时以修改前后的快照记录统计差量
+    @Test
+    void testUpdateOrder_RecordsDailyStatDelta() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        Order order = createOrder(1, 1, start, 2, OrderService.STATE_NO_AUDIT);
+        order.setTotal(200);
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+        when(orderDao.findByOrderID(1)).thenReturn(order);
+
+        orderService.updateOrder(1, "testVenue", start.plusDays(1), 3, "testUser");
+
+        verify(reportService).recordModify(
+            argThat(before -> before != order && start.equals(before.getStartTime())
+                && before.getHours() == 2 && before.getTotal() == 200.0),
+            argThat(after -> after == order && start.plusDays(1).equals(after.getStartTime())
+                && after.getHours() == 3 && after.getTotal() == 300.0));
+        verify(reportService, never()).recordSubmit(any());
+    }
+
+    // TC15.6: 每周重复预订批量保存后逐个记录到日统计
+    @Test
+    void testSubmitWeekly_RecordsDailyStat() {
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+
+        List<Order> result = orderService.submitWeekly("testVenue", LocalDate.now().plusDays(1).atTime(19, 0), 2, 4,
+            "club");
+
+        InOrder inOrder = inOrder(orderDao, reportService);
+        inOrder.verify(orderDao).saveAll(any());
+        for (Order order : result) {
+            inOrder.verify(reportService).recordSubmit(order);
+        }
+        verify(reportService, times(4)).recordSubmit(any());
+    }
+
+    // 测试用例分组12: 场馆月度可预订日历
+    // 位图与VenueSlotIndex.dayMask一致: 第h位表示h点至h+1点已被预订
+    // TC16.1: 未来月份由时段索引计算, 每天一个按绝对小时的位图
+    @Test
+    void testFindMonthAvailability_FromIndex() {
+        pinClock(LocalDateTime.of(2026, 3, 15, 10, 0));
+        YearMonth month = YearMonth.of(2026, 4);
+        when(venueDao.findByVenueID(1)).thenReturn(createVenue(1));
+        slotIndex.rebuild(Arrays.asList(
+            createOrder(1, 1, month.atDay(1).atTime(10, 0), 2, OrderService.STATE_WAIT),
+            createOrder(2, 1, month.atDay(15).atTime(20, 0), 2, OrderService.STATE_NO_AUDIT),
+            createOrder(3, 2, month.atDay(1).atTime(9, 0), 13, OrderService.STATE_WAIT)));
+
+        int[] days = orderService.findMonthAvailability(1, month);
+
+        assertEquals(30, days.length);
+        assertEquals(0b11 << 10, days[0]);
+        assertEquals(slotIndex.dayMask(1, month.atDay(1)), days[0]);
+        assertEquals(0b11 << 20, days[14]);
+        assertEquals(0, days[1]);
+        verify(orderDao, never()).findByVenueIDAndStartTimeIsBetween(anyInt(), any(), any());
+    }
+
+    // TC16.2: 今天之前的月份只做一次整月范围查询
+    @Test
+    void testFindMonthAvailability_PastMonthSingleQuery() {
+        pinClock(LocalDateTime.of(2026, 3, 15, 10, 0));
+        YearMonth month = YearMonth.of(2026, 1);
+        when(venueDao.findByVenueID(1)).thenReturn(createVenue(1));
+        when(orderDao.findByVenueIDAndStartTimeIsBetween(1, month.atDay(1).atStartOfDay(),
+            month.plusMonths(1).atDay(1).atStartOfDay()))
+            .thenReturn(Collections.singletonList(createOrder(1, 1, month.atDay(3).atTime(9, 0), 1,
+                OrderService.STATE_FINISH)));
+
+        int[] days = orderService.findMonthAvailability(1, month);
+
+        assertEquals(31, days.length);
+        assertEquals(1 << 9, days[2]);
+        verify(orderDao, times(1)).findByVenueIDAndStartTimeIsBetween(anyInt(), any(), any());
+    }
+
+    // TC16.4: 当前月份(月中) - 今天之前的日期由一次范围查询得到, 今天及以后由时段索引计算
+    @Test
+    void testFindMonthAvailability_CurrentMonthSplitsAtToday() {
+        pinClock(LocalDateTime.of(2026, 3, 15, 10, 0));
+        YearMonth month = YearMonth.of(2026, 3);
+        when(venueDao.findByVenueID(1)).thenReturn(createVenue(1));
+        slotIndex.rebuild(Arrays.asList(
+            createOrder(1, 1, month.atDay(15).atTime(20, 0), 2, OrderService.STATE_WAIT),
+            // 索引中残留的过去订单, 过去的日期以数据库为准
+            createOrder(2, 1, month.atDay(1).atTime(12, 0), 1, OrderService.STATE_WAIT)));
+        when(orderDao.findByVenueIDAndStartTimeIsBetween(1, month.atDay(1).atStartOfDay(),
+            month.atDay(15).atStartOfDay()))
+            .thenReturn(Collections.singletonList(createOrder(3, 1, month.atDay(1).atTime(9, 0), 1,
+                OrderService.STATE_FINISH)));
+
+        int[] days = orderService.findMonthAvailability(1, month);
+
+        assertEquals(31, days.length);
+        assertEquals(1 << 9, days[0]);
+        assertEquals(0b11 << 20, days[14]);
+        verify(orderDao, times(1)).findByVenueIDAndStartTimeIsBetween(anyInt(), any(), any());
+    }
+
+    // TC16.5: 当前月份(月末最后一天) - 只有最后一天由索引计算, 下个月的索引条目不计入本月
+    @Test
+    void testFindMonthAvailability_LastDayOfMonth() {
+        pinClock(LocalDateTime.of(2026, 3, 31, 23, 30));
+        YearMonth month = YearMonth.of(2026, 3);
+        when(venueDao.findByVenueID(1)).thenReturn(createVenue(1));
+        slotIndex.rebuild(Arrays.asList(
+            createOrder(1, 1, month.atDay(31).atTime(20, 0), 2, OrderService.STATE_WAIT),
+            createOrder(2, 1, LocalDate.of(2026, 4, 1).atTime(9, 0), 1, OrderService.STATE_WAIT)));
+        when(orderDao.findByVenueIDAndStartTimeIsBetween(1, month.atDay(1).atStartOfDay(),
+            month.atDay(31).atStartOfDay()))
+            .thenReturn(Collections.singletonList(createOrder(3, 1, month.atDay(30).atTime(14, 0), 3,
+                OrderService.STATE_WAIT)));
+
+        int[] days = orderService.findMonthAvailability(1, month);
+
+        assertEquals(31, days.length);
+        assertEquals(0b111 << 14, days[29]);
+        assertEquals(0b11 << 20, days[30]);
+        verify(orderDao, times(1)).findByVenueIDAndStartTimeIsBetween(anyInt(), any(), any());
+    }
+
+    // TC16.6: 当前月份(每月1日) - 没有过去的日期, 不查询数据库
+    @Test
+    void testFindMonthAvailability_FirstDayOfMonth() {
+        pinClock(LocalDateTime.of(2026, 3, 1, 0, 0));
+        YearMonth month = YearMonth.of(2026, 3);
+        when(venueDao.findByVenueID(1)).thenReturn(createVenue(1));
+        slotIndex.rebuild(Collections.singletonList(
+            createOrder(1, 1, month.atDay(1).atTime(9, 0), 1, OrderService.STATE_WAIT)));
+
+        int[] days = orderService.findMonthAvailability(1, month);
+
+        assertEquals(1 << 9, days[0]);
+        verify(orderDao, never()).findByVenueIDAndStartTimeIsBetween(anyInt(), any(), any());
+    }
+
+    // TC16.3: 已拒绝订单不占用时段
+    @Test
+    void testFindMonthAvailability_IgnoresRejected() {
+        pinClock(LocalDateTime.of(2026, 3, 15, 10, 0));
+        YearMonth month = YearMonth.of(2026, 1);
+        when(venueDao.findByVenueID(1)).thenReturn(createVenue(1));
+        when(orderDao.findByVenueIDAndStartTimeIsBetween(anyInt(), any(), any()))
+            .thenReturn(Collections.singletonList(createOrder(1, 1, month.atDay(3).atTime(9, 0), 1,
+                OrderService.STATE_REJECT)));
+
+        int[] days = orderService.findMonthAvailability(1, month);
+
+        assertEquals(0, days[2]);
+    }
+
+    private Venue createVenue(int venueId) {
+        Venue venue = new Venue();
+        venue.setVenueID(venueId);
+        venue.setOpen_time("09:00");
+        venue.setClose_time("22:00");
+        return venue;
+    }
+
+    // 把服务使用的时钟固定到指定时刻, 其余测试仍使用系统时钟
+    private void pinClock(LocalDateTime now) {
+        when(clock.instant()).thenReturn(now.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    // 测试用例分组13: 每周重复预订
+    // TC17.1: 所有场次空闲时一次批量保存
+    @Test
+    void testSubmitWeekly_AllFree() {
+        LocalDateTime first = LocalDate.now().plusDays(1).atTime(19, 0);
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+
+        List<Order> result = orderService.submitWeekly("testVenue", first, 2, 20, "club");
+
+        assertEquals(20, result.size());
+        assertEquals(first.plusWeeks(19), result.get(19).getStartTime());
+        assertTrue(result.stream().allMatch(order -> order.getState() == OrderService.STATE_NO_AUDIT
+            && order.getTotal() == 200.0 && "club".equals(order.getUserID())));
+        verify(orderDao, times(1)).saveAll(argThat(orders -> orders.spliterator().getExactSizeIfKnown() == 20));
+        verify(orderDao, never()).save(any());
+        verify(orderDao, never()).findByVenueIDAndStartTimeIsBetween(anyInt(), any(), any());
+        for (int week = 0; week < 20; week++) {
+            assertFalse(slotIndex.isFree(1, first.plusWeeks(week), 2));
+        }
+    }
+
+    // TC17.2: 任意一个场次冲突时全部不保存
+    @Test
+    void testSubmitWeekly_OneConflict() {
+        LocalDateTime first = LocalDate.now().plusDays(1).atTime(19, 0);
+        slotIndex.rebuild(Collections.singletonList(
+            createOrder(1, 1, first.plusWeeks(7).plusHours(1), 1, OrderService.STATE_WAIT)));
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+
+        Exception exception = assertThrows(RuntimeException.class, () ->
+            orderService.submitWeekly("testVenue", first, 2, 20, "club"));
+
+        assertEquals("Time slot already booked", exception.getMessage());
+        verify(orderDao, never()).saveAll(any());
+        assertTrue(slotIndex.isFree(1, first, 2));
+        assertTrue(slotIndex.isFree(1, first.plusWeeks(19), 2));
+    }
+
+    // TC17.3: 重复次数边界值
+    @ParameterizedTest
+    @CsvSource({
+        "0,  非法参数",
+        "1,  合法参数",
+        "52, 合法参数",
+        "53, 非法参数"
+    })
+    void testSubmitWeekly_WeeksBoundary(int weeks, String expected) {
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+        LocalDateTime first = LocalDate.now().plusDays(1).atTime(8, 0);
+
+        if (weeks <= 0 || weeks > 52) {
+            assertThrows(IllegalArgumentException.class, () ->
+                orderService.submitWeekly("testVenue", first, 1, weeks, "club"));
+        } else {
+            assertDoesNotThrow(() ->
+                orderService.submitWeekly("testVenue", first, 1, weeks, "club"));
+        }
+    }
+
+    // TC17.4: 批量保存失败 - 异常抛出, 时段索引与日统计都不改变
+    @Test
+    void testSubmitWeekly_SaveAllFails() {
+        LocalDateTime first = LocalDate.now().plusDays(1).atTime(19, 0);
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(venueDao.findByVenueName("testVenue")).thenReturn(venue);
+        when(orderDao.saveAll(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+            orderService.submitWeekly("testVenue", first, 2, 20, "club"));
+
+        assertTrue(slotIndex.isFree(1, first, 2));
+        assertTrue(slotIndex.isFree(1, first.plusWeeks(19), 2));
+        verifyNoInteractions(reportService);
+        assertFalse(dayLocks.isLocked(1, first.toLocalDate()));
+    }
+
+    // 测试用例分组14: 候补晋升通知
+    // TC18.1: 拒绝与删除订单后发布时段释放事件, 由候补服务在事务提交后处理, 不同步等待晋升
+    @Test
+    void testRejectAndDelete_PublishSlotFreed() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        slotIndex.rebuild(Arrays.asList(createOrder(1, 1, start, 2, OrderService.STATE_NO_AUDIT),
+            createOrder(2, 3, start.plusHours(3), 1, OrderService.STATE_WAIT)));
+        when(orderDao.updateStateFrom(eq(OrderService.STATE_REJECT), eq(1), any())).thenReturn(1);
+
+        orderService.rejectOrder(1);
+        orderService.delOrder(2);
+
+        verify(eventPublisher).publishEvent(freedEvent(1, start, 2));
+        verify(eventPublisher).publishEvent(freedEvent(3, start.plusHours(3), 1));
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+    }
+
+    // TC18.2: 通过与完成订单不释放时段
+    @Test
+    void testConfirmAndFinish_DoNotPublishSlotFreed() {
+        when(orderDao.updateStateFrom(anyInt(), anyInt(), any())).thenReturn(1);
+
+        orderService.confirmOrder(1);
+        orderService.finishOrder(2);
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    // TC18.6: 订单状态已改变, 条件更新未命中时不发布时段释放事件
+    @Test
+    void testRejectOrder_NothingUpdatedDoesNotPublish() {
+        when(orderDao.updateStateFrom(eq(OrderService.STATE_REJECT), eq(1), any())).thenReturn(0);
+        when(orderDao.existsById(1)).thenReturn(true);
+
+        assertThrows(RuntimeException.class, () -> orderService.rejectOrder(1));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static SlotFreedEvent freedEvent(int venueID, LocalDateTime startTime, int hours) {
+        return argThat(event -> event != null && event.getVenueID() == venueID
+            && startTime.equals(event.getStartTime()) && event.getHours() == hours);
+    }
+
+    // TC18.3: 候补晋升走同一准入路径 - 持有场馆日锁检查冲突, 批量保存, 占用索引并记录日统计
+    @Test
+    void testAdmitWaitlisted_UsesAdmissionPath() {
+        LocalDate day = LocalDate.now().plusDays(1);
+        Order first = createOrder(0, 1, day.atTime(10, 0), 2, OrderService.STATE_NO_AUDIT);
+        Order overnight = createOrder(0, 2, day.atTime(23, 0), 2, OrderService.STATE_NO_AUDIT);
+
+        List<Order> admitted = orderService.admitWaitlisted(Arrays.asList(first, overnight));
+
+        assertEquals(Arrays.asList(first, overnight), admitted);
+        InOrder inOrder = inOrder(dayLocks, orderDao, reportService);
+        inOrder.verify(dayLocks).acquire(1, day);
+        inOrder.verify(dayLocks).acquire(2, day);
+        inOrder.verify(dayLocks).acquire(2, day.plusDays(1));
+        inOrder.verify(orderDao).saveAll(Arrays.asList(first, overnight));
+        inOrder.verify(reportService).recordSubmit(first);
+        inOrder.verify(reportService).recordSubmit(overnight);
+        assertFalse(slotIndex.isFree(1, day.atTime(10, 0), 2));
+        assertFalse(slotIndex.isFree(2, day.atTime(23, 0), 2));
+        assertFalse(dayLocks.isLocked(1, day));
+        assertFalse(dayLocks.isLocked(2, day.plusDays(1)));
+    }
+
+    // TC18.4: 候补晋升时时段已被直接预订 - 跳过该候补, 其余照常准入
+    @Test
+    void testAdmitWaitlisted_SkipsTakenSlot() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        slotIndex.rebuild(Collections.singletonList(createOrder(9, 1, start.plusHours(1), 1,
+            OrderService.STATE_NO_AUDIT)));
+        Order taken = createOrder(0, 1, start, 2, OrderService.STATE_NO_AUDIT);
+        Order free = createOrder(0, 2, start, 2, OrderService.STATE_NO_AUDIT);
+
+        List<Order> admitted = orderService.admitWaitlisted(Arrays.asList(taken, free));
+
+        assertEquals(Collections.singletonList(free), admitted);
+        verify(orderDao).saveAll(Collections.singletonList(free));
+        verify(reportService).recordSubmit(free);
+        verify(reportService, never()).recordSubmit(taken);
+    }
+
+    // TC18.5: 没有可准入的候补 - 不访问数据库
+    @Test
+    void testAdmitWaitlisted_NoneAdmitted() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        slotIndex.rebuild(Collections.singletonList(createOrder(9, 1, start, 2, OrderService.STATE_WAIT)));
+
+        List<Order> admitted = orderService.admitWaitlisted(Collections.singletonList(
+            createOrder(0, 1, start, 2, OrderService.STATE_NO_AUDIT)));
+
+        assertTrue(admitted.isEmpty());
+        verify(orderDao, never()).saveAll(any());
+        verifyNoInteractions(reportService);
+    }
+
+    // 测试用例分组15: 历史订单分页
+    // TC19.1: 不包含历史 - 只查询热表
+    @Test
+    void testFindUserOrder_WithoutHistory() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(orderDao.findAllByUserID("user1", pageable)).thenReturn(new PageImpl<>(Collections.emptyList()));
+
+        orderService.findUserOrder("user1", pageable, false);
+
+        verifyNoInteractions(orderArchiveDao);
+    }
+
+    // TC19.2: 包含历史 - 热表不满一页时由归档表补齐, 总数为两表之和
+    @Test
+    void testFindUserOrder_HistoryFillsPage() {
+        Pageable pageable = PageRequest.of(0, 10);
+        List<Order> hot = Arrays.asList(createOrder(9, 1, LocalDateTime.now(), 1, OrderService.STATE_WAIT),
+            createOrder(8, 1, LocalDateTime.now(), 1, OrderService.STATE_NO_AUDIT));
+        when(orderDao.findAllByUserID("user1", pageable)).thenReturn(new PageImpl<>(hot, pageable, 2));
+        when(orderArchiveDao.countByUserID("user1")).thenReturn(5L);
+        when(orderArchiveDao.findPageByUserID("user1", 0L, 8))
+            .thenReturn(Arrays.asList(createArchive(3), createArchive(2)));
+
+        Page<Order> result = orderService.findUserOrder("user1", pageable, true);
+
+        assertEquals(7, result.getTotalElements());
+        assertEquals(4, result.getNumberOfElements());
+        assertEquals(9, result.getContent().get(0).getOrderID());
+        assertEquals(3, result.getContent().get(2).getOrderID());
+        assertEquals(OrderService.STATE_FINISH, result.getContent().get(2).getState());
+    }
+
+    // TC19.3: 包含历史 - 页面完全落在归档区间时按偏移量读取归档表
+    @Test
+    void testFindUserOrder_PageInsideHistory() {
+        Pageable pageable = PageRequest.of(3, 2);
+        when(orderDao.findAllByUserID("user1", pageable))
+            .thenReturn(new PageImpl<>(Collections.emptyList(), pageable, 3));
+        when(orderArchiveDao.countByUserID("user1")).thenReturn(10L);
+        when(orderArchiveDao.findPageByUserID("user1", 3L, 2))
+            .thenReturn(Arrays.asList(createArchive(5), createArchive(4)));
+
+        Page<Order> result = orderService.findUserOrder("user1", pageable, true);
+
+        assertEquals(13, result.getTotalElements());
+        assertEquals(2, result.getNumberOfElements());
+        assertEquals(5, result.getContent().get(0).getOrderID());
+    }
+
+    // TC19.4: 包含历史 - 热表已填满一页时不读取归档行
+    @Test
+    void testFindUserOrder_HotPageFull() {
+        Pageable pageable = PageRequest.of(0, 2);
+        List<Order> hot = Arrays.asList(new Order(), new Order());
+        when(orderDao.findAllByUserID("user1", pageable)).thenReturn(new PageImpl<>(hot, pageable, 5));
+        when(orderArchiveDao.countByUserID("user1")).thenReturn(4L);
+
+        Page<Order> result = orderService.findUserOrder("user1", pageable, true);
+
+        assertEquals(9, result.getTotalElements());
+        assertEquals(2, result.getNumberOfElements());
+        verify(orderArchiveDao, never()).findPageByUserID(anyString(), anyLong(), anyInt());
+    }
 }
\ No newline at end of file
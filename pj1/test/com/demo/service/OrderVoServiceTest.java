@@ -1,10 +1,12 @@
 package com.demo.pj1.demo.service;
 
+import com.demo.dao.OrderArchiveDao;
 import com.demo.dao.OrderDao;
 import com.demo.dao.VenueDao;
 import com.demo.entity.Order;
 import com.demo.entity.Venue;
 import com.demo.entity.vo.OrderVo;
+import com.demo.service.OrderService;
 import com.demo.service.impl.OrderVoServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,11 +15,19 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,6 +43,9 @@ public class OrderVoServiceTest {
     @Mock
     private VenueDao venueDao;
 
+    @Mock
+    private OrderArchiveDao orderArchiveDao;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -94,10 +107,7 @@ public class OrderVoServiceTest {
         Venue venue1 = createTestVenue(1, "Venue1");
         Venue venue2 = createTestVenue(2, "Venue2");
 
-        when(orderDao.findByOrderID(1)).thenReturn(order1);
-        when(orderDao.findByOrderID(2)).thenReturn(order2);
-        when(venueDao.findByVenueID(1)).thenReturn(venue1);
-        when(venueDao.findByVenueID(2)).thenReturn(venue2);
+        when(venueDao.findByVenueIDIn(anyCollection())).thenReturn(Arrays.asList(venue2, venue1));
 
         // Act
         List<OrderVo> result = orderVoService.returnVo(orders);
@@ -106,6 +116,8 @@ public class OrderVoServiceTest {
         assertEquals(2, result.size());
         assertEquals("Venue1", result.get(0).getVenueName());
         assertEquals("Venue2", result.get(1).getVenueName());
+        verify(orderDao, never()).findByOrderID(anyInt());
+        verify(venueDao, never()).findByVenueID(anyInt());
     }
 
     // 测试用例分组2: returnVo方法
@@ -120,10 +132,7 @@ public class OrderVoServiceTest {
         Venue venue1 = createTestVenue(1, "Venue1");
         Venue venue2 = createTestVenue(2, "Venue2");
 
-        when(orderDao.findByOrderID(1)).thenReturn(order1);
-        when(orderDao.findByOrderID(2)).thenReturn(order2);
-        when(venueDao.findByVenueID(1)).thenReturn(venue1);
-        when(venueDao.findByVenueID(2)).thenReturn(venue2);
+        when(venueDao.findByVenueIDIn(anyCollection())).thenReturn(Arrays.asList(venue2, venue1));
 
         // Act
         List<OrderVo> result = orderVoService.returnVo(orders);
@@ -132,6 +141,8 @@ public class OrderVoServiceTest {
         assertEquals(2, result.size());
         assertEquals("Venue1", result.get(0).getVenueName());
         assertEquals("Venue2", result.get(1).getVenueName());
+        verify(orderDao, never()).findByOrderID(anyInt());
+        verify(venueDao, never()).findByVenueID(anyInt());
     }
 
     // TC2.2: 获取多个订单视图 - 空列表
@@ -140,6 +151,7 @@ public class OrderVoServiceTest {
         List<Order> emptyList = Arrays.asList();
         List<OrderVo> result = orderVoService.returnVo(emptyList);
         assertTrue(result.isEmpty());
+        verifyNoInteractions(orderDao, venueDao);
     }
 
     // TC2.3: 获取多个订单视图 - 列表中包含无效订单
@@ -152,10 +164,7 @@ public class OrderVoServiceTest {
 
         Venue venue1 = createTestVenue(1, "Venue1");
         
-        when(orderDao.findByOrderID(1)).thenReturn(validOrder);
-        when(orderDao.findByOrderID(2)).thenReturn(invalidOrder);
-        when(venueDao.findByVenueID(1)).thenReturn(venue1);
-        when(venueDao.findByVenueID(999)).thenReturn(null);
+        when(venueDao.findByVenueIDIn(anyCollection())).thenReturn(Arrays.asList(venue1));
 
         // Act & Assert
         Exception exception = assertThrows(NullPointerException.class, () -> 
@@ -193,8 +202,7 @@ public class OrderVoServiceTest {
 
         Venue venue = createTestVenue(1, "TestVenue");
 
-        when(orderDao.findByOrderID(anyInt())).thenReturn(order1, order2);
-        when(venueDao.findByVenueID(1)).thenReturn(venue);
+        when(venueDao.findByVenueIDIn(anyCollection())).thenReturn(Arrays.asList(venue));
 
         // Act
         List<OrderVo> result = orderVoService.returnVo(orders);
@@ -207,30 +215,193 @@ public class OrderVoServiceTest {
         );
     }
 
-    // 性能测试：大量订单转换
+    // 性能测试：大量订单转换, 查询次数与订单数量无关
     @Test
     void testReturnVo_LargeOrderList() {
         // Arrange
         List<Order> orders = new ArrayList<>();
-        int orderCount = 100;
-        
+        List<Venue> venues = new ArrayList<>();
+        int orderCount = 1000;
+        int venueCount = 5;
+
         for (int i = 1; i <= orderCount; i++) {
-            Order order = createTestOrder(i, "user" + i, 1, 2, 200);
-            orders.add(order);
-            when(orderDao.findByOrderID(i)).thenReturn(order);
+            orders.add(createTestOrder(i, "user" + i, i % venueCount + 1, 2, 200));
         }
-        
-        Venue venue = createTestVenue(1, "TestVenue");
-        when(venueDao.findByVenueID(1)).thenReturn(venue);
+        for (int i = 1; i <= venueCount; i++) {
+            venues.add(createTestVenue(i, "Venue" + i));
+        }
+        when(venueDao.findByVenueIDIn(anyCollection())).thenReturn(venues);
 
         // Act
-        long startTime = System.currentTimeMillis();
         List<OrderVo> result = orderVoService.returnVo(orders);
-        long endTime = System.currentTimeMillis();
 
         // Assert
         assertEquals(orderCount, result.size());
-        assertTrue((endTime - startTime) < 1000); // 确保处理时间在1秒内
+        assertEquals("Venue2", result.get(0).getVenueName());
+        verify(venueDao, times(1)).findByVenueIDIn(argThat(ids ->
+            ids.size() == venueCount && ids.containsAll(Arrays.asList(1, 2, 3, 4, 5))));
+        verifyNoMoreInteractions(venueDao);
+        verifyNoInteractions(orderDao);
+    }
+
+    // 测试用例分组3: 投影查询直接返回订单视图
+    // TC3.1: 用户订单视图分页由DAO投影查询提供
+    @Test
+    void testFindUserOrderVo_Projection() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 5);
+        OrderVo vo = new OrderVo(1, "user1", 1, "TestVenue", OrderService.STATE_NO_AUDIT,
+            LocalDateTime.now(), LocalDateTime.now().plusDays(1), 2, 200);
+        when(orderDao.findVoByUserID("user1", pageable)).thenReturn(new PageImpl<>(Arrays.asList(vo), pageable, 1));
+
+        // Act
+        Page<OrderVo> result = orderVoService.findUserOrderVo("user1", pageable);
+
+        // Assert
+        assertEquals(1, result.getTotalElements());
+        assertEquals("TestVenue", result.getContent().get(0).getVenueName());
+        verify(orderDao).findVoByUserID("user1", pageable);
+        verify(orderDao, never()).findAllByUserID(anyString(), any());
+        verifyNoInteractions(venueDao);
+    }
+
+    // TC3.2: 待审核订单视图分页由DAO投影查询提供
+    @Test
+    void testFindNoAuditOrderVo_Projection() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        OrderVo vo = new OrderVo(2, "user2", 3, "Venue3", OrderService.STATE_NO_AUDIT,
+            LocalDateTime.now(), LocalDateTime.now().plusDays(2), 3, 300);
+        when(orderDao.findVoByState(OrderService.STATE_NO_AUDIT, pageable))
+            .thenReturn(new PageImpl<>(Arrays.asList(vo), pageable, 1));
+
+        // Act
+        Page<OrderVo> result = orderVoService.findNoAuditOrderVo(pageable);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertEquals(OrderService.STATE_NO_AUDIT, result.getContent().get(0).getState());
+        assertEquals("Venue3", result.getContent().get(0).getVenueName());
+        verify(orderDao, never()).findAllByState(anyInt(), any());
+        verifyNoInteractions(venueDao);
+    }
+
+    // TC3.3: 投影查询页码越界时返回空页
+    @Test
+    void testFindUserOrderVo_EmptyPage() {
+        // Arrange
+        Pageable pageable = PageRequest.of(998, 5);
+        when(orderDao.findVoByUserID("user1", pageable)).thenReturn(Page.empty(pageable));
+
+        // Act
+        Page<OrderVo> result = orderVoService.findUserOrderVo("user1", pageable);
+
+        // Assert
+        assertTrue(result.getContent().isEmpty());
+        verifyNoInteractions(venueDao);
+    }
+
+    // 测试用例分组4: 流式导出订单视图
+    // TC4.1: 按时间范围导出全部场馆的订单
+    @Test
+    void testExportOrders_AllVenues() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 4, 1, 0, 0);
+        AtomicInteger closed = new AtomicInteger();
+        Stream<OrderVo> rows = Stream.of(createTestOrderVo(1, "Venue1"), createTestOrderVo(2, "Venue2"))
+            .onClose(closed::incrementAndGet);
+        when(orderDao.streamVoByStartTimeBetween(from, to)).thenReturn(rows);
+
+        // Act
+        List<OrderVo> exported = new ArrayList<>();
+        orderVoService.exportOrders(from, to, null, exported::add);
+
+        // Assert
+        assertEquals(2, exported.size());
+        assertEquals("Venue2", exported.get(1).getVenueName());
+        assertEquals(1, closed.get());
+        verifyNoInteractions(venueDao);
+    }
+
+    // TC4.2: 按时间范围和场馆导出订单
+    @Test
+    void testExportOrders_SingleVenue() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 2, 1, 0, 0);
+        when(orderDao.streamVoByVenueIDAndStartTimeBetween(3, from, to))
+            .thenReturn(Stream.of(createTestOrderVo(1, "Venue3")));
+
+        // Act
+        List<OrderVo> exported = new ArrayList<>();
+        orderVoService.exportOrders(from, to, 3, exported::add);
+
+        // Assert
+        assertEquals(1, exported.size());
+        verify(orderDao, never()).streamVoByStartTimeBetween(any(), any());
+    }
+
+    // TC4.3: 导出时间范围非法
+    @Test
+    void testExportOrders_InvalidRange() {
+        LocalDateTime from = LocalDateTime.of(2026, 2, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        assertThrows(IllegalArgumentException.class, () ->
+            orderVoService.exportOrders(from, to, null, vo -> { }));
+        verifyNoInteractions(orderDao);
+    }
+
+    // TC4.4: 写出失败时同样关闭流, 释放数据库连接
+    @Test
+    void testExportOrders_ClosesStreamOnError() {
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 2, 1, 0, 0);
+        AtomicInteger closed = new AtomicInteger();
+        when(orderDao.streamVoByStartTimeBetween(from, to))
+            .thenReturn(Stream.of(createTestOrderVo(1, "Venue1")).onClose(closed::incrementAndGet));
+
+        assertThrows(UncheckedIOException.class, () -> orderVoService.exportOrders(from, to, null, vo -> {
+            throw new UncheckedIOException(new IOException("client aborted"));
+        }));
+        assertEquals(1, closed.get());
+    }
+
+    // TC4.5: 导出范围包含已归档订单 - 先输出热表再输出归档表, 两个流都被关闭
+    @Test
+    void testExportOrders_IncludesArchive() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 4, 1, 0, 0);
+        AtomicInteger closed = new AtomicInteger();
+        when(orderDao.streamVoByStartTimeBetween(from, to))
+            .thenReturn(Stream.of(createTestOrderVo(2, "Venue1")).onClose(closed::incrementAndGet));
+        when(orderArchiveDao.streamVoByStartTimeBetween(from, to))
+            .thenReturn(Stream.of(createTestOrderVo(1, "Venue1")).onClose(closed::incrementAndGet));
+
+        List<OrderVo> exported = new ArrayList<>();
+        orderVoService.exportOrders(from, to, null, exported::add);
+
+        assertEquals(2, exported.size());
+        assertEquals(2, exported.get(0).getOrderID());
+        assertEquals(1, exported.get(1).getOrderID());
+        assertEquals(2, closed.get());
+    }
+
+    // TC4.6: 按场馆导出同样包含已归档订单
+    @Test
+    void testExportOrders_SingleVenueIncludesArchive() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 2, 1, 0, 0);
+        when(orderDao.streamVoByVenueIDAndStartTimeBetween(3, from, to)).thenReturn(Stream.empty());
+        when(orderArchiveDao.streamVoByVenueIDAndStartTimeBetween(3, from, to))
+            .thenReturn(Stream.of(createTestOrderVo(1, "Venue3")));
+
+        List<OrderVo> exported = new ArrayList<>();
+        orderVoService.exportOrders(from, to, 3, exported::add);
+
+        assertEquals(1, exported.size());
+        verify(orderArchiveDao, never()).streamVoByStartTimeBetween(any(), any());
     }
 
     // Helper methods
@@ -254,4 +425,9 @@ public class OrderVoServiceTest {
         venue.setVenueName(venueName);
         return venue;
     }
+
+    private OrderVo createTestOrderVo(int orderId, String venueName) {
+        return new OrderVo(orderId, "user" + orderId, orderId, venueName, 2,
+            LocalDateTime.now(), LocalDateTime.now().plusDays(1), 2, 200);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,207 @@
+package com.demo.service;
+
+import com.demo.service.impl.RateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private RateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new RateLimiter(5, 1.0, 100, nanos::get);
+    }
+
+    // ------------------------- 1. tryAcquire -------------------------
+
+    /**
+     * TC:1.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：在桶容量内连续请求
+     * 预期：全部放行
+     */
+    @Test
+    void testTryAcquire_withinBurst() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("user:a"));
+        }
+    }
+
+    /**
+     * TC:1.1
+     * 类型：黑盒测试-边界值
+     * 描述：超过桶容量的请求
+     * 预期：被拒绝，返回距下一个令牌的等待时间
+     */
+    @Test
+    void testTryAcquire_exhausted() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("user:a");
+        }
+
+        long wait = limiter.tryAcquire("user:a");
+        assertTrue(wait > 0);
+        assertTrue(wait <= TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * TC:1.2
+     * 类型：黑盒测试-有效等价类
+     * 描述：耗尽令牌后等待补充
+     * 预期：按补充速率恢复，且不超过桶容量
+     */
+    @Test
+    void testTryAcquire_refill() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("user:a");
+        }
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, limiter.tryAcquire("user:a"));
+        assertEquals(0, limiter.tryAcquire("user:a"));
+        assertTrue(limiter.tryAcquire("user:a") > 0);
+
+        nanos.addAndGet(TimeUnit.HOURS.toNanos(1));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("user:a"));
+        }
+        assertTrue(limiter.tryAcquire("user:a") > 0);
+    }
+
+    /**
+     * TC:1.3
+     * 类型：黑盒测试-有效等价类
+     * 描述：不同键分别限流
+     * 预期：一个键被限流不影响其他键
+     */
+    @Test
+    void testTryAcquire_independentKeys() {
+        for (int i = 0; i < 6; i++) {
+            limiter.tryAcquire("user:a");
+        }
+
+        assertEquals(0, limiter.tryAcquire("user:b"));
+        assertEquals(0, limiter.tryAcquire("ip:127.0.0.1"));
+    }
+
+    // ------------------------- 2. 有界与过期 -------------------------
+
+    /**
+     * TC:2.0
+     * 类型：黑盒测试-边界值
+     * 描述：键数量超过上限
+     * 预期：空闲已满的桶被回收，桶数量不超过上限
+     */
+    @Test
+    void testBounded_maxKeys() {
+        RateLimiter small = new RateLimiter(5, 1.0, 2, nanos::get);
+        small.tryAcquire("user:a");
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        small.tryAcquire("user:b");
+        small.tryAcquire("user:c");
+
+        assertTrue(small.size() <= 2);
+    }
+
+    /**
+     * TC:2.1
+     * 类型：白盒测试-条件覆盖
+     * 描述：桶已回补满后被回收，之后同一键再次请求
+     * 预期：回收不改变限流结果，新桶从满容量开始
+     */
+    @Test
+    void testBounded_expiredBucketRecreated() {
+        limiter.tryAcquire("user:a");
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        limiter.evictIdle();
+
+        assertEquals(0, limiter.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("user:a"));
+        }
+    }
+
+    /**
+     * TC:2.2
+     * 类型：黑盒测试-无效等价类
+     * 描述：容量或速率配置为非正数
+     * 预期：抛出异常
+     */
+    @Test
+    void testConstructor_invalid() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1.0, 100, nanos::get));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(5, 0, 100, nanos::get));
+    }
+
+    /**
+     * TC:2.3
+     * 类型：黑盒测试-边界值
+     * 描述：桶数量已达上限且全部仍在使用（未回补满），新键到达
+     * 预期：不回收正在限流的桶（否则被限流的键可借此重置令牌），桶数量不增长，新键暂被拒绝直到有桶空闲
+     */
+    @Test
+    void testBounded_allBucketsActive() {
+        RateLimiter small = new RateLimiter(5, 1.0, 2, nanos::get);
+        for (int i = 0; i < 5; i++) {
+            small.tryAcquire("user:a");
+        }
+        small.tryAcquire("user:b");
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(small.tryAcquire("user:new" + i) > 0);
+        }
+        assertEquals(2, small.size());
+        assertTrue(small.tryAcquire("user:a") > 0);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, small.tryAcquire("user:b"));
+        }
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, small.tryAcquire("user:c"));
+        assertTrue(small.size() <= 2);
+    }
+
+    // ------------------------- 3. 并发 -------------------------
+
+    /**
+     * TC:3.0
+     * 类型：并发测试
+     * 描述：多个线程同时消耗同一个桶
+     * 预期：放行数恰好等于桶容量，不多发令牌
+     */
+    @Test
+    void testConcurrent_noOverIssue() throws InterruptedException {
+        RateLimiter shared = new RateLimiter(100, 1.0, 100, nanos::get);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (shared.tryAcquire("user:a") == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(100, granted.get());
+    }
+}
@@ -0,0 +1,293 @@
+package com.demo.service;
+
+import com.demo.dao.VenueDailyStatDao;
+import com.demo.entity.Order;
+import com.demo.entity.VenueDailyStat;
+import com.demo.service.impl.ReportServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTest {
+
+    @Mock
+    private VenueDailyStatDao venueDailyStatDao;
+
+    @InjectMocks
+    private ReportServiceImpl reportService;
+
+    /**
+     * 创建样例订单用以测试
+     * @return 样例订单
+     */
+    private Order createSampleOrder() {
+        Order order = new Order();
+        order.setOrderID(1);
+        order.setUserID("user");
+        order.setVenueID(2);
+        order.setStartTime(LocalDateTime.of(2026, 3, 5, 10, 0));
+        order.setHours(3);
+        order.setTotal(300);
+        order.setState(OrderService.STATE_NO_AUDIT);
+        return order;
+    }
+
+    // ------------------------- 1. recordSubmit -------------------------
+
+    /**
+     * TC:1.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：提交一个新订单
+     * 预期：对应场馆与日期的统计行增加一条待审核订单及其时长与金额
+     */
+    @Test
+    void testRecordSubmit_wellOrder() {
+        reportService.recordSubmit(createSampleOrder());
+
+        verify(venueDailyStatDao).addOrder(2, LocalDate.of(2026, 3, 5), 3, 300.0, OrderService.STATE_NO_AUDIT);
+    }
+
+    /**
+     * TC:1.1
+     * 类型：黑盒测试-无效等价类
+     * 描述：提交null订单
+     * 预期：抛出空指针异常，统计不变
+     */
+    @Test
+    void testRecordSubmit_nullOrder() {
+        assertThrows(NullPointerException.class, () -> reportService.recordSubmit(null));
+
+        verifyNoInteractions(venueDailyStatDao);
+    }
+
+    /**
+     * TC:1.2
+     * 类型：黑盒测试-有效等价类
+     * 描述：修改订单的场馆、日期、时长与金额
+     * 预期：先从原统计行扣除修改前的订单，再把修改后的订单加到新统计行
+     */
+    @Test
+    void testRecordModify_movesContribution() {
+        Order before = createSampleOrder();
+        Order after = createSampleOrder();
+        after.setStartTime(LocalDateTime.of(2026, 3, 6, 18, 0));
+        after.setHours(4);
+        after.setTotal(400);
+
+        reportService.recordModify(before, after);
+
+        InOrder inOrder = inOrder(venueDailyStatDao);
+        inOrder.verify(venueDailyStatDao).subtractOrder(2, LocalDate.of(2026, 3, 5), 3, 300.0,
+                OrderService.STATE_NO_AUDIT);
+        inOrder.verify(venueDailyStatDao).addOrder(2, LocalDate.of(2026, 3, 6), 4, 400.0,
+                OrderService.STATE_NO_AUDIT);
+    }
+
+    // ------------------------- 2. recordTransition -------------------------
+
+    /**
+     * TC:2.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：订单状态变化
+     * 预期：由一条语句在统计行上把订单从调用方给出的原状态移到新状态，不读取订单当前状态
+     */
+    @Test
+    void testRecordTransition_wellOrder() {
+        reportService.recordTransition(1, OrderService.STATE_NO_AUDIT, OrderService.STATE_WAIT);
+
+        verify(venueDailyStatDao).moveOrder(1, OrderService.STATE_NO_AUDIT, OrderService.STATE_WAIT);
+    }
+
+    /**
+     * TC:2.1
+     * 类型：黑盒测试-有效等价类
+     * 描述：批量订单状态变化
+     * 预期：一条语句处理全部订单
+     */
+    @Test
+    void testRecordTransitions_batch() {
+        reportService.recordTransitions(List.of(1, 2, 3), OrderService.STATE_NO_AUDIT, OrderService.STATE_REJECT);
+
+        verify(venueDailyStatDao, times(1)).moveOrders(List.of(1, 2, 3), OrderService.STATE_NO_AUDIT,
+                OrderService.STATE_REJECT);
+    }
+
+    /**
+     * TC:2.2
+     * 类型：黑盒测试-边界值
+     * 描述：批量状态变化的订单列表为空
+     * 预期：不访问数据库
+     */
+    @Test
+    void testRecordTransitions_emptyList() {
+        reportService.recordTransitions(List.of(), OrderService.STATE_NO_AUDIT, OrderService.STATE_REJECT);
+
+        verifyNoInteractions(venueDailyStatDao);
+    }
+
+    /**
+     * TC:2.3
+     * 类型：黑盒测试-无效等价类
+     * 描述：原状态与新状态相同
+     * 预期：抛出异常，统计不变
+     */
+    @Test
+    void testRecordTransition_sameState() {
+        assertThrows(IllegalArgumentException.class, () ->
+                reportService.recordTransition(1, OrderService.STATE_WAIT, OrderService.STATE_WAIT));
+
+        verifyNoInteractions(venueDailyStatDao);
+    }
+
+    // ------------------------- 3. recordDelete -------------------------
+
+    /**
+     * TC:3.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：删除订单
+     * 预期：从统计行中扣除该订单
+     */
+    @Test
+    void testRecordDelete_wellOrder() {
+        reportService.recordDelete(1);
+
+        verify(venueDailyStatDao).removeOrder(1);
+    }
+
+    // ------------------------- 4. findDaily -------------------------
+
+    /**
+     * TC:4.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：查询场馆一段时间内的日统计
+     * 预期：直接返回统计表中的行，行数与天数相关而与订单数无关
+     */
+    @Test
+    void testFindDaily_wellRange() {
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 3, 31);
+        VenueDailyStat stat = new VenueDailyStat();
+        stat.setVenueID(2);
+        stat.setDate(LocalDate.of(2026, 3, 5));
+        stat.setBookedHours(3);
+        stat.setRevenue(300);
+        when(venueDailyStatDao.findByVenueIDAndDateBetweenOrderByDate(2, from, to)).thenReturn(List.of(stat));
+
+        List<VenueDailyStat> result = reportService.findDaily(2, from, to);
+
+        assertEquals(1, result.size());
+        assertEquals(3, result.get(0).getBookedHours());
+    }
+
+    /**
+     * TC:4.1
+     * 类型：黑盒测试-无效等价类
+     * 描述：开始日期晚于结束日期
+     * 预期：抛出异常，不访问数据库
+     */
+    @Test
+    void testFindDaily_invalidRange() {
+        assertThrows(IllegalArgumentException.class, () ->
+                reportService.findDaily(2, LocalDate.of(2026, 3, 31), LocalDate.of(2026, 3, 1)));
+
+        verifyNoInteractions(venueDailyStatDao);
+    }
+
+    // ------------------------- 5. revenue -------------------------
+
+    /**
+     * TC:5.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：统计场馆一段时间内的收入
+     * 预期：返回统计表汇总的收入
+     */
+    @Test
+    void testRevenue_withData() {
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 3, 31);
+        when(venueDailyStatDao.sumRevenue(2, from, to)).thenReturn(1500.0);
+
+        assertEquals(1500.0, reportService.revenue(2, from, to));
+    }
+
+    /**
+     * TC:5.1
+     * 类型：黑盒测试-边界值
+     * 描述：统计范围内没有任何统计行
+     * 预期：返回0而不是null
+     */
+    @Test
+    void testRevenue_noData() {
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 3, 31);
+        when(venueDailyStatDao.sumRevenue(2, from, to)).thenReturn(null);
+
+        assertEquals(0.0, reportService.revenue(2, from, to));
+    }
+
+    // ------------------------- 6. rebuild -------------------------
+
+    /**
+     * TC:6.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：重建一段日期内的日统计（上线回填或修复漂移）
+     * 预期：先删除范围内的统计行，再由热表与归档表的并集一条聚合语句重新生成，返回生成的行数
+     */
+    @Test
+    void testRebuild_wellRange() {
+        LocalDate from = LocalDate.of(2026, 3, 1);
+        LocalDate to = LocalDate.of(2026, 3, 31);
+        when(venueDailyStatDao.insertAggregatedFromOrdersAndArchive(from.atStartOfDay(), to.plusDays(1).atStartOfDay()))
+                .thenReturn(42);
+
+        assertEquals(42, reportService.rebuild(from, to));
+
+        InOrder inOrder = inOrder(venueDailyStatDao);
+        inOrder.verify(venueDailyStatDao).deleteByDateBetween(from, to);
+        inOrder.verify(venueDailyStatDao).insertAggregatedFromOrdersAndArchive(from.atStartOfDay(),
+                to.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * TC:6.1
+     * 类型：黑盒测试-无效等价类
+     * 描述：重建范围的开始日期晚于结束日期
+     * 预期：抛出异常，统计不变
+     */
+    @Test
+    void testRebuild_invalidRange() {
+        assertThrows(IllegalArgumentException.class, () ->
+                reportService.rebuild(LocalDate.of(2026, 3, 31), LocalDate.of(2026, 3, 1)));
+
+        verifyNoInteractions(venueDailyStatDao);
+    }
+
+    /**
+     * TC:6.2
+     * 类型：黑盒测试-边界值
+     * 描述：重建范围早于归档保留期，订单已全部搬到归档表
+     * 预期：归档订单的收入同样计入，聚合语句覆盖归档表，不会把历史收入重建为0
+     */
+    @Test
+    void testRebuild_archivedRange() {
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 31);
+        when(venueDailyStatDao.insertAggregatedFromOrdersAndArchive(from.atStartOfDay(),
+                to.plusDays(1).atStartOfDay())).thenReturn(31);
+
+        assertEquals(31, reportService.rebuild(from, to));
+
+        verify(venueDailyStatDao, times(1)).insertAggregatedFromOrdersAndArchive(any(), any());
+    }
+}
@@ -1,8 +1,10 @@
 package com.demo.service.impl;
 
 import com.demo.dao.VenueDao;
+import com.demo.entity.Order;
 import com.demo.entity.Venue;
 import com.demo.exception.LoginException;
+import com.demo.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +13,7 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -19,13 +22,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +44,9 @@ public class VenueServiceTest {
     @Mock
     private VenueDao venueDao;
 
+    @Spy
+    private VenueSlotIndex slotIndex = new VenueSlotIndex();
+
     @InjectMocks
     private VenueServiceImpl venueService;
 
@@ -143,7 +156,7 @@ public class VenueServiceTest {
      */
     @Test
     void testFindByVenueID_WhenExists() {
-        when(venueDao.getOne(1)).thenReturn(validVenue);
+        when(venueDao.findById(1)).thenReturn(Optional.of(validVenue));
         Venue result = venueService.findByVenueID(1);
         assertNotNull(result);
         assertEquals(result,validVenue);
@@ -153,13 +166,14 @@ public class VenueServiceTest {
      * 测试场景：通过不存在的场馆ID查询
      * 测试类型：黑盒（无效等价类） + 白盒（空值处理）
      * 覆盖目标：
-     * 1. 验证返回结果为 null
+     * 1. 验证抛出与控制器层一致的"entity with id 999"异常
      */
     @Test
     void testFindByVenueID_WhenNotExists() {
-        when(venueDao.getOne(999)).thenReturn(null);
-        Venue result = venueService.findByVenueID(999);
-        assertNull(result);
+        when(venueDao.findById(999)).thenReturn(Optional.empty());
+        EmptyResultDataAccessException exception = assertThrows(EmptyResultDataAccessException.class,
+                () -> venueService.findByVenueID(999));
+        assertTrue(exception.getMessage().contains("No class com.demo.entity.Venue entity with id 999 exists"));
     }
 
 
@@ -353,6 +367,164 @@ public class VenueServiceTest {
 
 
 
+    //------------------------ 缓存测试 ------------------------
+
+    /**
+     * 测试场景：重复查询同一场馆ID
+     * 测试类型：白盒（语句覆盖）
+     * 覆盖目标：
+     * 1. 验证第二次查询命中缓存
+     * 2. 确保DAO层只被调用一次
+     */
+    @Test
+    void testFindByVenueID_CacheHit() {
+        when(venueDao.findById(1)).thenReturn(Optional.of(validVenue));
+        assertEquals(validVenue, venueService.findByVenueID(1));
+        assertEquals(validVenue, venueService.findByVenueID(1));
+        verify(venueDao, times(1)).findById(1);
+        verify(venueDao, never()).getOne(anyInt());
+    }
+
+    /**
+     * 测试场景：重复按名称查询同一场馆
+     * 测试类型：白盒（语句覆盖）
+     * 覆盖目标：
+     * 1. 验证按名称查询同样命中缓存
+     */
+    @Test
+    void testFindByVenueName_CacheHit() {
+        when(venueDao.findByVenueName("Test Stadium")).thenReturn(validVenue);
+        assertEquals(validVenue, venueService.findByVenueName("Test Stadium"));
+        assertEquals(validVenue, venueService.findByVenueName("Test Stadium"));
+        verify(venueDao, times(1)).findByVenueName("Test Stadium");
+    }
+
+    /**
+     * 测试场景：查询不存在的场馆后再次查询
+     * 测试类型：黑盒（无效等价类） + 白盒（判定覆盖）
+     * 覆盖目标：
+     * 1. 验证不存在的场馆不被缓存，后续创建的场馆可以被查到
+     */
+    @Test
+    void testFindByVenueID_MissingNotCached() {
+        Venue created = new Venue(999, "Created Later", "New", 100, "", "Addr", "09:00", "22:00");
+        when(venueDao.findById(999)).thenReturn(Optional.empty(), Optional.of(created));
+        assertThrows(EmptyResultDataAccessException.class, () -> venueService.findByVenueID(999));
+        assertEquals(created, venueService.findByVenueID(999));
+        verify(venueDao, times(2)).findById(999);
+    }
+
+    /**
+     * 测试场景：更新场馆后再次查询
+     * 测试类型：白盒（判定覆盖）
+     * 覆盖目标：
+     * 1. 验证更新使按ID和按名称的缓存失效
+     * 2. 确保再次查询重新访问DAO层
+     */
+    @Test
+    void testUpdate_InvalidatesCache() {
+        when(venueDao.findById(1)).thenReturn(Optional.of(validVenue));
+        when(venueDao.findByVenueName("Test Stadium")).thenReturn(validVenue);
+        venueService.findByVenueID(1);
+        venueService.findByVenueName("Test Stadium");
+
+        venueService.update(validVenue);
+        venueService.findByVenueID(1);
+        venueService.findByVenueName("Test Stadium");
+
+        verify(venueDao).save(validVenue);
+        verify(venueDao, times(2)).findById(1);
+        verify(venueDao, times(2)).findByVenueName("Test Stadium");
+    }
+
+    /**
+     * 测试场景：更新场馆名称后按旧名称查询
+     * 测试类型：白盒（判定覆盖）
+     * 覆盖目标：
+     * 1. 验证改名使旧名称的缓存失效，旧名称不再返回该场馆
+     * 2. 确保新名称可以查到改名后的场馆
+     */
+    @Test
+    void testUpdate_RenameEvictsOldNameKey() {
+        Venue renamed = new Venue(1, "Renamed Stadium", "A modern stadium for sports events",
+                100, "test.jpg", "123 Test Street", "08:00", "22:00");
+        when(venueDao.findById(1)).thenReturn(Optional.of(validVenue));
+        when(venueDao.findByVenueName("Test Stadium")).thenReturn(validVenue, (Venue) null);
+        when(venueDao.findByVenueName("Renamed Stadium")).thenReturn(renamed);
+        venueService.findByVenueID(1);
+        venueService.findByVenueName("Test Stadium");
+
+        venueService.update(renamed);
+
+        assertNull(venueService.findByVenueName("Test Stadium"));
+        assertEquals(renamed, venueService.findByVenueName("Renamed Stadium"));
+        verify(venueDao, times(2)).findByVenueName("Test Stadium");
+    }
+
+    /**
+     * 测试场景：删除场馆后再次查询
+     * 测试类型：白盒（判定覆盖）
+     * 覆盖目标：
+     * 1. 验证删除使缓存失效
+     */
+    @Test
+    void testDelById_InvalidatesCache() {
+        when(venueDao.findById(1)).thenReturn(Optional.of(validVenue), Optional.empty());
+        assertNotNull(venueService.findByVenueID(1));
+
+        venueService.delById(1);
+
+        assertThrows(EmptyResultDataAccessException.class, () -> venueService.findByVenueID(1));
+        verify(venueDao, times(2)).findById(1);
+    }
+
+    /**
+     * 测试场景：新建场馆后再次分页查询
+     * 测试类型：白盒（判定覆盖）
+     * 覆盖目标：
+     * 1. 验证相同分页参数命中缓存
+     * 2. 确保新建场馆使分页缓存失效，下一次请求即可见
+     */
+    @Test
+    void testCreate_InvalidatesPageCache() {
+        Pageable pageable = PageRequest.of(0, 5);
+        Venue newVenue = new Venue(2, "New Stadium", "New", 100, "", "Addr", "09:00", "22:00");
+        when(venueDao.findAll(pageable)).thenReturn(
+                new PageImpl<>(Collections.singletonList(validVenue), pageable, 1),
+                new PageImpl<>(Arrays.asList(validVenue, newVenue), pageable, 2));
+        when(venueDao.save(newVenue)).thenReturn(newVenue);
+
+        venueService.findAll(pageable);
+        venueService.findAll(pageable);
+        venueService.create(newVenue);
+        Page<Venue> result = venueService.findAll(pageable);
+
+        assertEquals(2, result.getTotalElements());
+        verify(venueDao, times(2)).findAll(pageable);
+    }
+
+    /**
+     * 测试场景：查询的场馆数超过缓存容量
+     * 测试类型：黑盒（边界值）
+     * 覆盖目标：
+     * 1. 验证缓存大小有上限，最久未使用的场馆被淘汰
+     */
+    @Test
+    void testFindByVenueID_EvictsLeastRecentlyUsed() {
+        when(venueDao.findById(anyInt())).thenReturn(Optional.of(validVenue));
+        for (int id = 1; id <= VenueServiceImpl.CACHE_CAPACITY + 1; id++) {
+            venueService.findByVenueID(id);
+        }
+
+        venueService.findByVenueID(VenueServiceImpl.CACHE_CAPACITY + 1);
+        venueService.findByVenueID(1);
+
+        verify(venueDao, times(1)).findById(VenueServiceImpl.CACHE_CAPACITY + 1);
+        verify(venueDao, times(2)).findById(1);
+    }
+
+
+
     /**
         被删除的用例：
      * 测试场景：创建地址为空的场馆
@@ -385,4 +557,239 @@ public class VenueServiceTest {
      删除原因：该方法与测试Create和测试Update的方法冗余
      */
 
+    //------------------------ 游标分页测试 ------------------------
+
+    /**
+     * 测试场景：从上一页最后一个场馆ID之后查询
+     * 测试类型：黑盒（有效等价类）
+     * 覆盖目标：
+     * 1. 验证使用按主键定位的查询而不是OFFSET分页
+     */
+    @Test
+    void testFindAfter_Seek() {
+        when(venueDao.findByVenueIDGreaterThanOrderByVenueIDAsc(5, PageRequest.of(0, 5)))
+                .thenReturn(Collections.singletonList(validVenue));
+
+        List<Venue> result = venueService.findAfter(5, 5);
+
+        assertEquals(1, result.size());
+        verify(venueDao, never()).findAll(any(Pageable.class));
+    }
+
+    /**
+     * 测试场景：每页数量为非正数
+     * 测试类型：黑盒（边界值）
+     * 覆盖目标：
+     * 1. 验证参数校验，DAO层不被调用
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    void testFindAfter_InvalidSize(int size) {
+        assertThrows(IllegalArgumentException.class, () -> venueService.findAfter(0, size));
+        verifyNoInteractions(venueDao);
+    }
+
+    //------------------------ Slice查询测试 ------------------------
+
+    /**
+     * 测试场景：只需要判断是否有下一页的分页查询
+     * 测试类型：白盒（语句覆盖）
+     * 覆盖目标：
+     * 1. 验证使用不计数的Slice查询
+     * 2. 确保不调用返回Page的DAO方法
+     */
+    @Test
+    void testFindSlice_NoCountQuery() {
+        Pageable pageable = PageRequest.of(0, 5);
+        when(venueDao.findSliceBy(pageable))
+                .thenReturn(new SliceImpl<>(Collections.singletonList(validVenue), pageable, false));
+
+        Slice<Venue> result = venueService.findSlice(pageable);
+
+        assertFalse(result.hasNext());
+        assertEquals(1, result.getNumberOfElements());
+        verify(venueDao, never()).findAll(any(Pageable.class));
+    }
+
+    //------------------------ 空闲场馆搜索测试 ------------------------
+
+    /**
+     * 测试场景：按开始时间、时长和最高价格搜索空闲场馆
+     * 测试类型：黑盒（等价类划分）
+     * 覆盖目标：
+     * 1. 价格超出上限的场馆被排除
+     * 2. 营业时间不能容纳预订的场馆被排除
+     * 3. 该时段已有订单的场馆被排除
+     */
+    @Test
+    void testFindFreeVenues_Filters() {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(20, 0);
+        Venue free = new Venue(1, "Free", "", 100, "", "", "08:00", "22:00");
+        Venue expensive = new Venue(2, "Expensive", "", 500, "", "", "08:00", "22:00");
+        Venue closesEarly = new Venue(3, "Closes Early", "", 100, "", "", "08:00", "21:00");
+        Venue booked = new Venue(4, "Booked", "", 100, "", "", "08:00", "22:00");
+        when(venueDao.findAll()).thenReturn(Arrays.asList(free, expensive, closesEarly, booked));
+        slotIndex.rebuild(Collections.singletonList(createOrder(1, 4, start.plusHours(1), 1)));
+
+        List<Venue> result = venueService.findFreeVenues(start, 2, 200);
+
+        assertEquals(1, result.size());
+        assertEquals("Free", result.get(0).getVenueName());
+    }
+
+    /**
+     * 测试场景：连续两次搜索
+     * 测试类型：白盒（语句覆盖）
+     * 覆盖目标：
+     * 1. 场馆列表只加载一次，之后由缓存提供
+     * 2. 搜索不按场馆逐个查询订单
+     */
+    @Test
+    void testFindFreeVenues_SinglePass() {
+        when(venueDao.findAll()).thenReturn(Collections.singletonList(validVenue));
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+
+        venueService.findFreeVenues(start, 1, 1000);
+        venueService.findFreeVenues(start.plusHours(2), 1, 1000);
+
+        verify(venueDao, times(1)).findAll();
+        verify(venueDao, never()).findByVenueID(anyInt());
+    }
+
+    /**
+     * 测试场景：非法的预订时长
+     * 测试类型：黑盒（边界值）
+     * 覆盖目标：
+     * 1. 验证参数校验，DAO层不被调用
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {0, 25})
+    void testFindFreeVenues_InvalidHours(int hours) {
+        assertThrows(IllegalArgumentException.class, () ->
+                venueService.findFreeVenues(LocalDate.now().plusDays(1).atTime(10, 0), hours, 1000));
+        verifyNoInteractions(venueDao);
+    }
+
+    /**
+     * 测试场景：1000个场馆、每个场馆30天订单时搜索空闲场馆
+     * 测试类型：白盒（语句覆盖）
+     * 覆盖目标：
+     * 1. 使用普通的时段索引（非Spy），结果与逐个订单判断重叠的结果一致
+     * 2. 搜索只读取一次场馆列表，订单只来自时段索引（服务不再依赖订单DAO）
+     * 说明：只验证结果正确与访问次数，不对耗时做断言
+     */
+    @Test
+    void testFindFreeVenues_LargeCatalogFromIndex() {
+        LocalDate day = LocalDate.now().plusDays(1);
+        List<Venue> venues = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        int orderID = 1;
+        for (int i = 1; i <= 1000; i++) {
+            venues.add(new Venue(i, "Venue " + i, "", 100 + i % 50, "", "", "08:00", "22:00"));
+            for (int d = 0; d < 30; d++) {
+                orders.add(createOrder(orderID++, i, day.plusDays(d).atTime(8 + (i + d) % 12, 0), 2));
+            }
+        }
+        when(venueDao.findAll()).thenReturn(venues);
+        VenueSlotIndex plainIndex = new VenueSlotIndex();
+        plainIndex.rebuild(orders);
+        VenueServiceImpl service = new VenueServiceImpl(venueDao, plainIndex);
+        LocalDateTime start = day.plusDays(7).atTime(14, 0);
+
+        service.findFreeVenues(day.atTime(10, 0), 2, 200);
+        List<Venue> result = service.findFreeVenues(start, 2, 130);
+
+        List<Integer> expected = new ArrayList<>();
+        for (Venue venue : venues) {
+            boolean booked = orders.stream().anyMatch(o -> o.getVenueID() == venue.getVenueID()
+                    && o.getStartTime().isBefore(start.plusHours(2))
+                    && o.getStartTime().plusHours(o.getHours()).isAfter(start));
+            if (venue.getPrice() <= 130 && !booked) {
+                expected.add(venue.getVenueID());
+            }
+        }
+        List<Integer> actual = new ArrayList<>();
+        result.forEach(venue -> actual.add(venue.getVenueID()));
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+        verify(venueDao, times(1)).findAll();
+        verify(venueDao, never()).findByVenueID(anyInt());
+    }
+
+    /**
+     * 测试场景：搜索后新建场馆，再次搜索
+     * 测试类型：白盒（判定覆盖）
+     * 覆盖目标：
+     * 1. 验证新建场馆使搜索用的场馆列表缓存失效
+     * 2. 确保新场馆在下一次搜索中可见
+     */
+    @Test
+    void testFindFreeVenues_CreateEvictsVenueList() {
+        Venue newVenue = new Venue(2, "New Stadium", "New", 100, "", "Addr", "08:00", "22:00");
+        when(venueDao.findAll()).thenReturn(Collections.singletonList(validVenue),
+                Arrays.asList(validVenue, newVenue));
+        when(venueDao.save(newVenue)).thenReturn(newVenue);
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+
+        assertEquals(1, venueService.findFreeVenues(start, 1, 1000).size());
+        venueService.create(newVenue);
+        List<Venue> result = venueService.findFreeVenues(start, 1, 1000);
+
+        assertEquals(2, result.size());
+        verify(venueDao, times(2)).findAll();
+    }
+
+    /**
+     * 测试场景：搜索后修改场馆价格，再次搜索
+     * 测试类型：白盒（判定覆盖）
+     * 覆盖目标：
+     * 1. 验证更新场馆使搜索用的场馆列表缓存失效
+     * 2. 确保按新价格过滤，不返回旧价格的场馆
+     */
+    @Test
+    void testFindFreeVenues_UpdateEvictsVenueList() {
+        Venue repriced = new Venue(1, "Test Stadium", "A modern stadium for sports events",
+                500, "test.jpg", "123 Test Street", "08:00", "22:00");
+        when(venueDao.findAll()).thenReturn(Collections.singletonList(validVenue),
+                Collections.singletonList(repriced));
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+
+        assertEquals(1, venueService.findFreeVenues(start, 1, 200).size());
+        venueService.update(repriced);
+        List<Venue> result = venueService.findFreeVenues(start, 1, 200);
+
+        assertTrue(result.isEmpty());
+        verify(venueDao, times(2)).findAll();
+    }
+
+    /**
+     * 测试场景：搜索后删除场馆，再次搜索
+     * 测试类型：白盒（判定覆盖）
+     * 覆盖目标：
+     * 1. 验证删除场馆使搜索用的场馆列表缓存失效
+     * 2. 确保已删除的场馆不再出现在搜索结果中
+     */
+    @Test
+    void testFindFreeVenues_DelByIdEvictsVenueList() {
+        when(venueDao.findAll()).thenReturn(Collections.singletonList(validVenue), Collections.emptyList());
+        doNothing().when(venueDao).deleteById(1);
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+
+        assertEquals(1, venueService.findFreeVenues(start, 1, 1000).size());
+        venueService.delById(1);
+        List<Venue> result = venueService.findFreeVenues(start, 1, 1000);
+
+        assertTrue(result.isEmpty());
+        verify(venueDao, times(2)).findAll();
+    }
+
+    private Order createOrder(int orderID, int venueID, LocalDateTime startTime, int hours) {
+        Order order = new Order();
+        order.setOrderID(orderID);
+        order.setVenueID(venueID);
+        order.setStartTime(startTime);
+        order.setHours(hours);
+        order.setState(OrderService.STATE_WAIT);
+        return order;
+    }
 }
\ No newline at end of file
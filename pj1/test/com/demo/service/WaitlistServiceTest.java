@@ -0,0 +1,303 @@
+package com.demo.service;
+
+import com.demo.dao.VenueDao;
+import com.demo.dao.WaitlistDao;
+import com.demo.entity.Order;
+import com.demo.entity.Venue;
+import com.demo.entity.Waitlist;
+import com.demo.service.impl.SlotFreedEvent;
+import com.demo.service.impl.VenueSlotIndex;
+import com.demo.service.impl.WaitlistServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistServiceTest {
+
+    @Mock
+    private WaitlistDao waitlistDao;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private VenueDao venueDao;
+
+    @Spy
+    private VenueSlotIndex slotIndex = new VenueSlotIndex();
+
+    @InjectMocks
+    private WaitlistServiceImpl waitlistService;
+
+    private LocalDateTime slotStart;
+
+    @BeforeEach
+    void setUp() {
+        slotStart = LocalDate.now().plusDays(1).atTime(10, 0);
+    }
+
+    /**
+     * 创建样例候补用以测试
+     * @return 样例候补
+     */
+    private Waitlist createSampleWaitlist(int waitID, String userID, int venueID, LocalDateTime startTime,
+                                          LocalDateTime joinTime) {
+        Waitlist waitlist = new Waitlist();
+        waitlist.setWaitID(waitID);
+        waitlist.setUserID(userID);
+        waitlist.setVenueID(venueID);
+        waitlist.setStartTime(startTime);
+        waitlist.setHours(2);
+        waitlist.setJoinTime(joinTime);
+        return waitlist;
+    }
+
+    // ------------------------- 1. join -------------------------
+
+    /**
+     * TC:1.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：时段已被预订时加入候补
+     * 预期：保存候补记录
+     */
+    @Test
+    void testJoin_bookedSlot() {
+        Order order = new Order();
+        order.setOrderID(1);
+        order.setVenueID(1);
+        order.setStartTime(slotStart);
+        order.setHours(2);
+        order.setState(OrderService.STATE_WAIT);
+        slotIndex.rebuild(List.of(order));
+
+        waitlistService.join("user", 1, slotStart, 2);
+
+        verify(waitlistDao).save(argThat(w -> w.getVenueID() == 1 && "user".equals(w.getUserID())
+                && slotStart.equals(w.getStartTime()) && w.getHours() == 2));
+    }
+
+    /**
+     * TC:1.1
+     * 类型：黑盒测试-无效等价类
+     * 描述：时段空闲时加入候补
+     * 预期：抛出异常，应直接预订
+     */
+    @Test
+    void testJoin_freeSlot() {
+        assertThrows(IllegalStateException.class, () -> waitlistService.join("user", 1, slotStart, 2));
+
+        verifyNoInteractions(waitlistDao);
+    }
+
+    // ------------------------- 2. slotFreed -------------------------
+
+    /**
+     * TC:2.0
+     * 类型：白盒测试-语句覆盖
+     * 描述：时段被释放
+     * 预期：只入队，不在调用线程上访问数据库
+     */
+    @Test
+    void testSlotFreed_noDatabaseAccess() {
+        waitlistService.slotFreed(1, slotStart, 2);
+
+        assertEquals(1, waitlistService.pendingCount());
+        verifyNoInteractions(waitlistDao, orderService, venueDao);
+    }
+
+    /**
+     * TC:2.1
+     * 类型：黑盒测试-有效等价类
+     * 描述：订单服务发布时段释放事件
+     * 预期：事件中的时段入队等待晋升
+     */
+    @Test
+    void testOnSlotFreed_enqueues() {
+        waitlistService.onSlotFreed(new SlotFreedEvent(1, slotStart, 2));
+
+        assertEquals(1, waitlistService.pendingCount());
+        verifyNoInteractions(waitlistDao, orderService, venueDao);
+    }
+
+    /**
+     * TC:2.2
+     * 类型：白盒测试-语句覆盖
+     * 描述：时段释放事件的监听方式
+     * 预期：只在拒绝或删除订单的事务提交后入队，回滚的事务不会释放仍被占用的时段
+     */
+    @Test
+    void testOnSlotFreed_afterCommitOnly() throws NoSuchMethodException {
+        TransactionalEventListener listener = WaitlistServiceImpl.class
+                .getMethod("onSlotFreed", SlotFreedEvent.class)
+                .getAnnotation(TransactionalEventListener.class);
+
+        assertNotNull(listener);
+        assertEquals(TransactionPhase.AFTER_COMMIT, listener.phase());
+        assertFalse(listener.fallbackExecution());
+    }
+
+    // ------------------------- 3. promote -------------------------
+
+    /**
+     * TC:3.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：多个时段被释放后执行一次晋升
+     * 预期：每个时段最早加入的候补被转为待审核订单，一次交给订单准入路径，准入的候补批量删除
+     */
+    @Test
+    void testPromote_batchesHeads() {
+        LocalDateTime otherStart = slotStart.plusHours(4);
+        Waitlist firstA = createSampleWaitlist(1, "early", 1, slotStart, LocalDateTime.now().minusHours(3));
+        Waitlist secondA = createSampleWaitlist(2, "late", 1, slotStart, LocalDateTime.now().minusHours(1));
+        Waitlist firstB = createSampleWaitlist(3, "other", 2, otherStart, LocalDateTime.now().minusHours(2));
+        Venue venue1 = new Venue();
+        venue1.setVenueID(1);
+        venue1.setPrice(100);
+        Venue venue2 = new Venue();
+        venue2.setVenueID(2);
+        venue2.setPrice(150);
+        when(waitlistDao.findCandidates(anyCollection(), any(), any())).thenReturn(List.of(firstA, firstB, secondA));
+        when(venueDao.findByVenueIDIn(anyCollection())).thenReturn(List.of(venue1, venue2));
+        when(orderService.admitWaitlisted(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        waitlistService.slotFreed(1, slotStart, 2);
+        waitlistService.slotFreed(2, otherStart, 2);
+        int promoted = waitlistService.promote();
+
+        assertEquals(2, promoted);
+        assertEquals(0, waitlistService.pendingCount());
+        verify(waitlistDao, times(1)).findCandidates(anyCollection(), any(), any());
+        verify(orderService, times(1)).admitWaitlisted(argThat(list -> list.size() == 2
+                && list.stream().allMatch(o -> o.getState() == OrderService.STATE_NO_AUDIT)
+                && list.stream().anyMatch(o -> "early".equals(o.getUserID()) && o.getTotal() == 200.0)
+                && list.stream().anyMatch(o -> "other".equals(o.getUserID()) && o.getTotal() == 300.0)));
+        verify(waitlistDao, times(1)).deleteAllInBatch(List.of(firstA, firstB));
+    }
+
+    /**
+     * TC:3.1
+     * 类型：黑盒测试-边界值
+     * 描述：没有被释放的时段
+     * 预期：不访问数据库
+     */
+    @Test
+    void testPromote_nothingPending() {
+        assertEquals(0, waitlistService.promote());
+
+        verifyNoInteractions(waitlistDao, orderService, venueDao);
+    }
+
+    /**
+     * TC:3.2
+     * 类型：黑盒测试-无效等价类
+     * 描述：时段被释放后又被其他用户直接预订，准入路径拒绝该候补
+     * 预期：候补不被晋升，保留在候补中
+     */
+    @Test
+    void testPromote_slotTakenAgain() {
+        Waitlist head = createSampleWaitlist(1, "early", 1, slotStart, LocalDateTime.now().minusHours(3));
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(waitlistDao.findCandidates(anyCollection(), any(), any())).thenReturn(List.of(head));
+        when(venueDao.findByVenueIDIn(anyCollection())).thenReturn(List.of(venue));
+        when(orderService.admitWaitlisted(anyList())).thenReturn(List.of());
+
+        waitlistService.slotFreed(1, slotStart, 2);
+        int promoted = waitlistService.promote();
+
+        assertEquals(0, promoted);
+        verify(waitlistDao, never()).deleteAllInBatch(any());
+    }
+
+    /**
+     * TC:3.3
+     * 类型：白盒测试-条件覆盖
+     * 描述：一次晋升中部分候补被准入路径拒绝
+     * 预期：只删除被准入的候补
+     */
+    @Test
+    void testPromote_deletesOnlyAdmitted() {
+        LocalDateTime otherStart = slotStart.plusHours(4);
+        Waitlist admittedHead = createSampleWaitlist(1, "early", 1, slotStart, LocalDateTime.now().minusHours(3));
+        Waitlist rejectedHead = createSampleWaitlist(2, "other", 1, otherStart, LocalDateTime.now().minusHours(2));
+        Venue venue = new Venue();
+        venue.setVenueID(1);
+        venue.setPrice(100);
+        when(waitlistDao.findCandidates(anyCollection(), any(), any())).thenReturn(List.of(admittedHead, rejectedHead));
+        when(venueDao.findByVenueIDIn(anyCollection())).thenReturn(List.of(venue));
+        when(orderService.admitWaitlisted(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            return orders.stream().filter(o -> "early".equals(o.getUserID())).collect(Collectors.toList());
+        });
+
+        waitlistService.slotFreed(1, slotStart, 2);
+        waitlistService.slotFreed(1, otherStart, 2);
+        int promoted = waitlistService.promote();
+
+        assertEquals(1, promoted);
+        verify(waitlistDao, times(1)).deleteAllInBatch(List.of(admittedHead));
+    }
+
+    // ------------------------- 4. recoverPending -------------------------
+
+    /**
+     * TC:4.0
+     * 类型：黑盒测试-有效等价类
+     * 描述：应用重启，待晋升队列只在内存中，重启前入队的时段已丢失
+     * 预期：启动时按未来的候补记录重建队列，只有当前空闲的时段入队，同一时段只入队一次
+     */
+    @Test
+    void testRecoverPending_requeuesFreeSlots() {
+        LocalDateTime bookedStart = slotStart.plusHours(4);
+        Order order = new Order();
+        order.setOrderID(1);
+        order.setVenueID(1);
+        order.setStartTime(bookedStart);
+        order.setHours(2);
+        order.setState(OrderService.STATE_WAIT);
+        slotIndex.rebuild(List.of(order));
+        when(waitlistDao.findByStartTimeAfter(any(LocalDateTime.class))).thenReturn(List.of(
+                createSampleWaitlist(1, "early", 1, slotStart, LocalDateTime.now().minusHours(3)),
+                createSampleWaitlist(2, "late", 1, slotStart, LocalDateTime.now().minusHours(1)),
+                createSampleWaitlist(3, "other", 1, bookedStart, LocalDateTime.now().minusHours(2))));
+
+        waitlistService.recoverPending();
+
+        assertEquals(1, waitlistService.pendingCount());
+        verifyNoInteractions(orderService);
+    }
+
+    /**
+     * TC:4.1
+     * 类型：黑盒测试-边界值
+     * 描述：重启时没有未来的候补记录
+     * 预期：队列为空
+     */
+    @Test
+    void testRecoverPending_nothingWaiting() {
+        when(waitlistDao.findByStartTimeAfter(any(LocalDateTime.class))).thenReturn(List.of());
+
+        waitlistService.recoverPending();
+
+        assertEquals(0, waitlistService.pendingCount());
+    }
+}